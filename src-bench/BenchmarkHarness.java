@@ -0,0 +1,144 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+
+// Minimal JMH-style measurement loop: timed warmup, then timed measurement during which every
+// invocation's latency is recorded. Reports throughput, latency percentiles, bytes allocated per
+// operation (from the per-thread allocation counter) and GC activity during measurement.
+public class BenchmarkHarness {
+    interface Operation {
+        Object run();
+    }
+
+    static final class Result {
+        final String name;
+        final long operations;
+        final double opsPerSecond;
+        final double meanMillis;
+        final double p50Millis;
+        final double p90Millis;
+        final double p99Millis;
+        final double maxMillis;
+        final double bytesPerOp;
+        final long gcCount;
+        final long gcMillis;
+
+        Result(String name, long operations, double opsPerSecond, double meanMillis, double p50Millis, double p90Millis,
+               double p99Millis, double maxMillis, double bytesPerOp, long gcCount, long gcMillis) {
+            this.name = name;
+            this.operations = operations;
+            this.opsPerSecond = opsPerSecond;
+            this.meanMillis = meanMillis;
+            this.p50Millis = p50Millis;
+            this.p90Millis = p90Millis;
+            this.p99Millis = p99Millis;
+            this.maxMillis = maxMillis;
+            this.bytesPerOp = bytesPerOp;
+            this.gcCount = gcCount;
+            this.gcMillis = gcMillis;
+        }
+
+        static String header() {
+            return String.format("%-48s %10s %12s %10s %10s %10s %10s %14s %6s %8s",
+                    "benchmark", "ops", "ops/s", "mean ms", "p50 ms", "p99 ms", "max ms", "bytes/op", "gc", "gc ms");
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-48s %10d %12.2f %10.3f %10.3f %10.3f %10.3f %14.0f %6d %8d",
+                    name, operations, opsPerSecond, meanMillis, p50Millis, p99Millis, maxMillis, bytesPerOp, gcCount, gcMillis);
+        }
+
+        String toCsv() {
+            return String.join(",", name, Long.toString(operations), Double.toString(opsPerSecond),
+                    Double.toString(meanMillis), Double.toString(p50Millis), Double.toString(p90Millis),
+                    Double.toString(p99Millis), Double.toString(maxMillis), Double.toString(bytesPerOp),
+                    Long.toString(gcCount), Long.toString(gcMillis));
+        }
+
+        static String csvHeader() {
+            return "benchmark,ops,ops_per_s,mean_ms,p50_ms,p90_ms,p99_ms,max_ms,bytes_per_op,gc_count,gc_ms";
+        }
+    }
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // Results are folded in here so the JIT cannot drop the work that produced them
+    static volatile int sink;
+
+    final double warmupSeconds;
+    final double measureSeconds;
+    final int minOperations;
+
+    BenchmarkHarness(double warmupSeconds, double measureSeconds, int minOperations) {
+        this.warmupSeconds = warmupSeconds;
+        this.measureSeconds = measureSeconds;
+        this.minOperations = minOperations;
+    }
+
+    // prepare runs before every invocation and is neither timed nor counted as allocation
+    Result measure(String name, Runnable prepare, Operation operation) {
+        long warmupEnd = System.nanoTime() + (long) (warmupSeconds * 1e9);
+        do {
+            if (prepare != null) prepare.run();
+            consume(operation.run());
+        } while (System.nanoTime() < warmupEnd);
+
+        long threadId = Thread.currentThread().getId();
+        long[] latencies = new long[1024];
+        int count = 0;
+        long elapsed = 0;
+        long allocated = 0;
+        long gcCountBefore = gcCount();
+        long gcTimeBefore = gcMillis();
+        while (elapsed < measureSeconds * 1e9 || count < minOperations) {
+            if (prepare != null) prepare.run();
+            long bytesBefore = THREADS.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            Object result = operation.run();
+            long time = System.nanoTime() - start;
+            allocated += THREADS.getThreadAllocatedBytes(threadId) - bytesBefore;
+            consume(result);
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = time;
+            elapsed += time;
+        }
+        long gcCount = gcCount() - gcCountBefore;
+        long gcTime = gcMillis() - gcTimeBefore;
+
+        Arrays.sort(latencies, 0, count);
+        return new Result(name, count, count / (elapsed / 1e9), elapsed / 1e6 / count,
+                percentile(latencies, count, 0.50), percentile(latencies, count, 0.90),
+                percentile(latencies, count, 0.99), latencies[count - 1] / 1e6,
+                (double) allocated / count, gcCount, gcTime);
+    }
+
+    private static double percentile(long[] sorted, int count, double fraction) {
+        return sorted[Math.min(count - 1, (int) Math.ceil(fraction * count) - 1)] / 1e6;
+    }
+
+    private static void consume(Object result) {
+        sink ^= System.identityHashCode(result);
+    }
+
+    private static long gcCount() {
+        long total = 0;
+        List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        for (GarbageCollectorMXBean collector : collectors) {
+            total += Math.max(0, collector.getCollectionCount());
+        }
+        return total;
+    }
+
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, collector.getCollectionTime());
+        }
+        return total;
+    }
+}
@@ -0,0 +1,132 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+// Baseline benchmarks for Dijkstra.dijkstra, BellmanFord.bellmanFord and FloydWarshall.floydWarshall
+// (plus the solve() entry points that reuse the solver's arrays or a SearchWorkspace) over the
+// GraphGenerator families.
+//
+//   javac -d out src/*.java src-bench/*.java      (the test class additionally needs JUnit)
+//   java -Xms2g -Xmx2g -cp out SolverBenchmark [--filter regex] [--sizes 1000,10000]
+//        [--all-pairs-sizes 128,512] [--warmup s] [--time s] [--csv results.csv]
+//
+// Single-source benchmarks answer one query per operation, from sources cycling through a fixed
+// random sequence. All-pairs benchmarks build a fresh FloydWarshall before each operation,
+// outside the measured time.
+public class SolverBenchmark {
+    public static void main(String[] args) throws IOException {
+        Pattern filter = Pattern.compile(".*");
+        int[] sizes = { 1000, 10000, 100000 };
+        int[] allPairsSizes = { 128, 512, 1024 };
+        double warmup = 2;
+        double time = 5;
+        Path csv = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--filter": filter = Pattern.compile(args[++i]); break;
+                case "--sizes": sizes = parseSizes(args[++i]); break;
+                case "--all-pairs-sizes": allPairsSizes = parseSizes(args[++i]); break;
+                case "--warmup": warmup = Double.parseDouble(args[++i]); break;
+                case "--time": time = Double.parseDouble(args[++i]); break;
+                case "--csv": csv = Path.of(args[++i]); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        BenchmarkHarness harness = new BenchmarkHarness(warmup, time, 5);
+        List<BenchmarkHarness.Result> results = new ArrayList<>();
+        System.out.println(BenchmarkHarness.Result.header());
+        GraphGenerator.Family[] sparseFamilies = {
+                GraphGenerator.Family.RANDOM_SPARSE, GraphGenerator.Family.GRID, GraphGenerator.Family.SCALE_FREE };
+
+        for (GraphGenerator.Family family : sparseFamilies) {
+            for (int size : sizes) {
+                String suffix = "/" + family + "/" + size;
+                if (!filter.matcher("dijkstra" + suffix).find() && !filter.matcher("bellmanFord" + suffix).find()) continue;
+                Graph graph = GraphGenerator.generate(family, size, 42);
+                int[] sources = sources(graph, 64);
+                int[] next = new int[1];
+
+                Dijkstra dijkstra = new Dijkstra(graph);
+                run(harness, results, filter, "dijkstra" + suffix, null,
+                        () -> dijkstra.dijkstra(sources[next[0]++ & 63]));
+                run(harness, results, filter, "dijkstra.solve" + suffix, null, () -> {
+                    dijkstra.solve(sources[next[0]++ & 63]);
+                    return dijkstra.distanceList;
+                });
+                SearchWorkspace workspace = new SearchWorkspace(graph.size());
+                run(harness, results, filter, "dijkstra.workspace" + suffix, null,
+                        () -> dijkstra.solve(sources[next[0]++ & 63], workspace));
+                BellmanFord bellmanFord = new BellmanFord(graph);
+                run(harness, results, filter, "bellmanFord" + suffix, null,
+                        () -> bellmanFord.bellmanFord(sources[next[0]++ & 63]));
+                BellmanFord spfa = new BellmanFord(graph, BellmanFord.Mode.SPFA);
+                run(harness, results, filter, "bellmanFord.spfa" + suffix, null, () -> {
+                    spfa.solve(sources[next[0]++ & 63]);
+                    return spfa.distanceList;
+                });
+                run(harness, results, filter, "bellmanFord.workspace" + suffix, null,
+                        () -> spfa.solve(sources[next[0]++ & 63], workspace));
+            }
+        }
+
+        for (GraphGenerator.Family family : GraphGenerator.Family.values()) {
+            for (int size : allPairsSizes) {
+                for (FloydWarshall.Kernel kernel : new FloydWarshall.Kernel[] { FloydWarshall.Kernel.SCALAR, FloydWarshall.Kernel.BLOCKED }) {
+                    String name = "floydWarshall." + kernel.name().toLowerCase() + "/" + family + "/" + size;
+                    if (!filter.matcher(name).find()) continue;
+                    Graph graph = GraphGenerator.generate(family, size, 42);
+                    FloydWarshall[] solver = new FloydWarshall[1];
+                    run(harness, results, filter, name, () -> {
+                        solver[0] = null;  // lets the previous matrices go before the next pair is allocated
+                        solver[0] = new FloydWarshall(graph);
+                        solver[0].setKernel(kernel);
+                    }, () -> {
+                        solver[0].floydWarshall();
+                        return solver[0].distanceMatrix;
+                    });
+                }
+            }
+        }
+
+        if (csv != null) {
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(csv))) {
+                out.println(BenchmarkHarness.Result.csvHeader());
+                for (BenchmarkHarness.Result result : results) {
+                    out.println(result.toCsv());
+                }
+            }
+        }
+    }
+
+    private static void run(BenchmarkHarness harness, List<BenchmarkHarness.Result> results, Pattern filter,
+                            String name, Runnable prepare, BenchmarkHarness.Operation operation) {
+        if (!filter.matcher(name).find()) return;
+        BenchmarkHarness.Result result = harness.measure(name, prepare, operation);
+        results.add(result);
+        System.out.println(result);
+    }
+
+    private static int[] sources(Graph graph, int count) {
+        Random random = new Random(7);
+        int[] sources = new int[count];
+        for (int i = 0; i < count; i++) {
+            sources[i] = random.nextInt(graph.size());
+        }
+        return sources;
+    }
+
+    private static int[] parseSizes(String list) {
+        String[] parts = list.split(",");
+        int[] sizes = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            sizes[i] = Integer.parseInt(parts[i].trim());
+        }
+        return sizes;
+    }
+}
@@ -0,0 +1,34 @@
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// Vector API version of RowKernel.SCALAR, loaded by RowKernel.vectorOrScalar().
+// Build and run with the incubator module, e.g.
+//   javac --add-modules jdk.incubator.vector -cp out -d out src-vector/VectorRowKernel.java
+//   java --add-modules jdk.incubator.vector -cp out Main
+public class VectorRowKernel implements RowKernel {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    @Override
+    public void relax(int[] dist, int[] via, int iRow, int kRow, int dik, int vik, int from, int to) {
+        IntVector pivot = IntVector.broadcast(SPECIES, dik);
+        IntVector pivotVia = IntVector.broadcast(SPECIES, vik);
+        int j = from;
+        for (int upper = from + SPECIES.loopBound(to - from); j < upper; j += SPECIES.length()) {
+            IntVector dkj = IntVector.fromArray(SPECIES, dist, kRow + j);
+            IntVector dij = IntVector.fromArray(SPECIES, dist, iRow + j);
+            IntVector vij = IntVector.fromArray(SPECIES, via, iRow + j);
+            // Same clamped int add as the scalar loop, so results stay bit-identical
+            IntVector candidate = pivot.add(dkj).max(-INF);
+            IntVector candidateVia = IntVector.fromArray(SPECIES, via, kRow + j).max(pivotVia);
+            VectorMask<Integer> better = candidate.compare(VectorOperators.LT, dij)
+                    .or(candidate.compare(VectorOperators.EQ, dij).and(candidateVia.compare(VectorOperators.LT, vij)))
+                    .and(dkj.compare(VectorOperators.NE, INF));
+            // Blending and storing whole lanes measured faster here than masked stores
+            dij.blend(candidate, better).intoArray(dist, iRow + j);
+            vij.blend(candidateVia, better).intoArray(via, iRow + j);
+        }
+        SCALAR.relax(dist, via, iRow, kRow, dik, vik, j, to);
+    }
+}
@@ -1,116 +1,475 @@
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class BellmanFord {
-    ArrayList<ArrayList<int[]>> adjacencyList;
-    ArrayList<Integer> distanceList;
-    ArrayList<Integer> path;
-    final int INF = Integer.MAX_VALUE / 2;
+    // CLASSIC relaxes every edge of the CSR arrays once per pass, SPFA only relaxes the edges out
+    // of nodes whose distance changed since they were last scanned, and PARALLEL splits each
+    // pass across a ForkJoinPool
+    enum Mode { CLASSIC, SPFA, PARALLEL }
+
+    Graph graph;
+    Mode mode;
+    int parallelism = Runtime.getRuntime().availableProcessors();
+    int[] distanceList;
+    int[] path;
+    final int INF = Distances.INF;
+    TraceListener listener;  // null unless tracing was requested
+    SolverMetrics metrics;  // null unless metrics were requested
+    // Counters of the last query, reported to metrics
+    int passes;
+    long relaxations;
 
     BellmanFord(ArrayList<ArrayList<int[]>> adjacencyList) {
-        this.adjacencyList = new ArrayList<>(adjacencyList);
-        distanceList = new ArrayList<>();
-        path = new ArrayList<>();
-        // Initialize distances to infinity
-        for (int i = 0; i < adjacencyList.size(); i++) {
-            distanceList.add(INF);
-            path.add(-1);
+        this(Graph.fromAdjacencyList(adjacencyList));
+    }
+
+    BellmanFord(Graph graph) {
+        this(graph, Mode.CLASSIC);
+    }
+
+    BellmanFord(Graph graph, Mode mode) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
         }
+        this.graph = graph;
+        this.mode = mode;
+        distanceList = new int[graph.size()];
+        path = new int[graph.size()];
+        // Initialize distances to infinity
+        Arrays.fill(distanceList, INF);
+        Arrays.fill(path, -1);
     }
 
     ArrayList<Integer> bellmanFord(int start) {
-        distanceList.set(start, 0);
-        path.set(start, start);
+        solve(start);
+        ArrayList<Integer> distances = new ArrayList<>(distanceList.length);
+        for (int distance : distanceList) {
+            distances.add(distance);
+        }
+        return distances;
+    }
+
+    // Runs the search without boxing a copy of the result; read distanceList and path afterwards.
+    // Nodes reachable through a negative cycle are set to -INF before the exception is thrown.
+    void solve(int start) {
+        if (start < 0 || start >= graph.size()) {
+            throw new IllegalArgumentException("Invalid start node");
+        }
+        // Start from a clean state so one instance can answer any number of queries
+        Arrays.fill(distanceList, INF);
+        Arrays.fill(path, -1);
+        distanceList[start] = 0;
+        path[start] = start;
+
+        if (listener != null) listener.bellmanFordStarted(start);
+        long began = metrics != null ? System.nanoTime() : 0;
+        passes = 0;
+        relaxations = 0;
 
-        System.out.println("Iteration\tDistance List");
+        boolean negativeCycle;
+        if (mode == Mode.SPFA) {
+            negativeCycle = runSpfa(start);
+        } else if (mode == Mode.PARALLEL) {
+            negativeCycle = runParallel();
+        } else {
+            negativeCycle = runClassic();
+        }
+        if (metrics != null) metrics.bellmanFordQuery(System.nanoTime() - began, passes, relaxations);
+        if (negativeCycle) {
+            if (listener != null) listener.negativeCycleDetected();
+            throw new IllegalStateException("Graph contains a negative weight cycle");
+        }
+    }
 
-        // Relax all edges V-1 times
-        for (int i = 0; i < adjacencyList.size() - 1; i++) {
+    // Relax all edges up to V-1 times; a pass that still improves something after that proves a
+    // negative cycle, and only then is the -INF propagation needed
+    private boolean runClassic() {
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        int[] weights = graph.weights;
+        long relaxed = 0;
+        for (int i = 0; i < graph.size(); i++) {
             boolean updated = false;
-            for (int u = 0; u < adjacencyList.size(); u++) {
-                for (int[] edge : adjacencyList.get(u)) {
-                    int v = edge[0];
-                    int weight = edge[1];
-
-                    if (distanceList.get(u) != INF &&
-                            distanceList.get(u) + weight < distanceList.get(v)) {
-                        distanceList.set(v, distanceList.get(u) + weight);
-                        path.set(v, u);
+            passes++;
+            for (int u = 0; u < graph.size(); u++) {
+                int du = distanceList[u];
+                if (du == INF) continue;
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    int v = targets[e];
+                    long newDistance = (long) du + weights[e];
+                    if (newDistance < distanceList[v]) {
+                        distanceList[v] = (int) newDistance;
+                        path[v] = u;
                         updated = true;
+                        relaxed++;
                     }
                 }
             }
+            relaxations = relaxed;
+
+            if (i == graph.size() - 1) {
+                if (!updated) return false;
+                break;  // The extra V-th pass still improved something
+            }
+            if (listener != null) listener.bellmanFordPass(i + 1, distanceList);
+            if (!updated) return false;  // Early termination if no updates
+        }
+
+        markNegativeCycles();
+        return true;
+    }
+
+    // Everything still relaxable after V-1 passes is fed by a negative cycle
+    private void markNegativeCycles() {
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        int[] weights = graph.weights;
+        int[] affected = new int[graph.size()];
+        int count = 0;
+        boolean[] marked = new boolean[graph.size()];
+        for (int u = 0; u < graph.size(); u++) {
+            int du = distanceList[u];
+            if (du == INF) continue;
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = targets[e];
+                if ((long) du + weights[e] < distanceList[v] && !marked[v]) {
+                    marked[v] = true;
+                    affected[count++] = v;
+                }
+            }
+        }
+        markReachable(affected, count, marked);
+    }
 
-            System.out.println((i+1) + "\t\t" + formatDistanceList());
-            if (!updated) break;  // Early termination if no updates
-        }
-        for (int i = 0; i < adjacencyList.size() - 1; i++) {
-            for (int u = 0; u < adjacencyList.size(); u++) {
-                for (int[] edge : adjacencyList.get(u)) {
-                    int v = edge[0];
-                    int weight = edge[1];
-                    if (distanceList.get(u) != INF &&
-                            distanceList.get(u) + weight < distanceList.get(v)) {
-                        distanceList.set(v, -INF);
+    // Jacobi-style passes: every node pulls the best offer from its in-edges, reading only the
+    // previous pass's distances and writing only its own slot of the next buffer. Nodes are
+    // split across threads without locks or atomics, and the fixed point is the same as the
+    // sequential one.
+    private boolean runParallel() {
+        int n = graph.size();
+        Graph reverse = graph.reverse();
+        int[] current = distanceList;
+        int[] next = distanceList.clone();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            int grain = Math.max(1024, ParallelRange.grainFor(pool, n));
+            AtomicLong relaxed = new AtomicLong();
+            for (int i = 0; i < n; i++) {
+                AtomicBoolean updated = new AtomicBoolean();
+                passes++;
+                int[] previous = current;
+                int[] target = next;
+                ParallelRange.forEach(pool, 0, n, grain, (from, to) -> {
+                    int changed = 0;
+                    for (int v = from; v < to; v++) {
+                        int best = previous[v];
+                        int bestParent = path[v];
+                        for (int e = reverse.offsets[v]; e < reverse.offsets[v + 1]; e++) {
+                            int du = previous[reverse.targets[e]];
+                            if (du == INF) continue;
+                            long newDistance = (long) du + reverse.weights[e];
+                            if (newDistance < best) {
+                                best = (int) newDistance;
+                                bestParent = reverse.targets[e];
+                            }
+                        }
+                        if (best != previous[v]) {
+                            changed++;
+                            path[v] = bestParent;
+                        }
+                        target[v] = best;
+                    }
+                    if (changed > 0) {
+                        updated.set(true);
+                        relaxed.addAndGet(changed);
                     }
+                });
+                relaxations = relaxed.get();
+                current = target;
+                next = previous;
+
+                if (i == n - 1) {
+                    if (!updated.get()) break;
+                    distanceList = current;
+                    markNegativeCycles();
+                    return true;
                 }
+                if (listener != null) listener.bellmanFordPass(i + 1, current);
+                if (!updated.get()) break;
             }
+        } finally {
+            pool.shutdown();
         }
+        distanceList = current;
+        return false;
+    }
+
+    // Queue-based Bellman-Ford. Each node is queued at most once at a time. edgeCount[v] is the
+    // number of edges on the walk behind v's current distance; a walk of V edges repeats a node,
+    // and since every label only ever improves, the repeated part must be a negative cycle.
+    // Counting improvements instead would flag cycle-free graphs whose nodes improve often.
+    private boolean runSpfa(int start) {
+        int n = graph.size();
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        int[] weights = graph.weights;
+        int[] queue = new int[n];
+        boolean[] queued = new boolean[n];
+        int[] edgeCount = new int[n];
+        int head = 0;
+        int length = 1;
+        queue[0] = start;
+        queued[start] = true;
+        // A round is the nodes queued when the previous round ended
+        int roundLeft = 1;
+        passes = 1;
 
-        // Check for negative weight cycles
-        if (hasNegativeCycle()) {
-            System.out.println("Warning: Graph contains a negative weight cycle");
+        while (length > 0) {
+            if (roundLeft == 0) {
+                roundLeft = length;
+                passes++;
+            }
+            roundLeft--;
+            int u = queue[head];
+            head = head + 1 == n ? 0 : head + 1;
+            length--;
+            queued[u] = false;
+
+            int du = distanceList[u];
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = targets[e];
+                long newDistance = (long) du + weights[e];
+                if (newDistance < distanceList[v]) {
+                    distanceList[v] = (int) newDistance;
+                    path[v] = u;
+                    relaxations++;
+                    edgeCount[v] = edgeCount[u] + 1;
+                    if (edgeCount[v] >= n) {
+                        finishNegativeCycle();
+                        return true;
+                    }
+                    if (!queued[v]) {
+                        queued[v] = true;
+                        int tail = head + length;
+                        queue[tail >= n ? tail - n : tail] = v;
+                        length++;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // Once SPFA has found a negative cycle its labels are still lengths of real walks, so classic
+    // passes can carry on from them: after V - 1 of them every node that no negative cycle feeds
+    // is final, and markNegativeCycles seeds the -INF flood from every edge that still relaxes,
+    // which marks the same nodes as CLASSIC. The node whose walk reached V edges usually lies
+    // downstream of the cycle, and other cycles may feed other branches, so flooding from that
+    // node alone would leave finite distances behind.
+    private void finishNegativeCycle() {
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        int[] weights = graph.weights;
+        for (int i = 1; i < graph.size(); i++) {
+            boolean updated = false;
+            for (int u = 0; u < graph.size(); u++) {
+                int du = distanceList[u];
+                if (du == INF) continue;
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    int v = targets[e];
+                    long newDistance = (long) du + weights[e];
+                    if (newDistance < distanceList[v]) {
+                        distanceList[v] = (int) newDistance;
+                        path[v] = u;
+                        updated = true;
+                    }
+                }
+            }
+            if (!updated) break;
+        }
+        markNegativeCycles();
+    }
+
+    // SPFA in a caller-owned workspace, whatever the mode: no O(V) reset, no copies and, once the
+    // workspace is warm, no allocation. Cycles are detected by walk length, as in runSpfa, and
+    // nodes reachable through a negative cycle read -INF from the workspace before the exception
+    // is thrown.
+    DistanceView solve(int start, SearchWorkspace workspace) {
+        workspace.begin(start, graph.size());
+        long began = metrics != null ? System.nanoTime() : 0;
+        int n = graph.size();
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        int[] weights = graph.weights;
+        if (workspace.queue == null) {
+            workspace.queue = new int[Math.max(n, 1)];
+            workspace.counter = new int[n];
+        }
+        int[] queue = workspace.queue;
+        int[] counter = workspace.counter;
+        workspace.set(start, 0, start);
+        counter[start] = 0;
+        queue[0] = start;
+        workspace.setMarked(start, true);
+        int head = 0;
+        int length = 1;
+        int roundLeft = 1;
+        int rounds = 1;
+        int scanned = 0;
+        long relaxed = 0;
+        int cycleNode = -1;
+
+        while (length > 0 && cycleNode < 0) {
+            if (roundLeft == 0) {
+                roundLeft = length;
+                rounds++;
+            }
+            roundLeft--;
+            int u = queue[head];
+            head = head + 1 == n ? 0 : head + 1;
+            length--;
+            workspace.setMarked(u, false);
+            scanned++;
+
+            int du = workspace.distance[u];
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = targets[e];
+                long newDistance = (long) du + weights[e];
+                if (newDistance < workspace.distance(v)) {
+                    workspace.set(v, (int) newDistance, u);
+                    // u was stamped when it was queued, so its count is from this query
+                    counter[v] = counter[u] + 1;
+                    relaxed++;
+                    if (counter[v] >= n) {
+                        cycleNode = v;
+                        break;
+                    }
+                    if (!workspace.isMarked(v)) {
+                        workspace.setMarked(v, true);
+                        int tail = head + length;
+                        queue[tail >= n ? tail - n : tail] = v;
+                        length++;
+                    }
+                }
+            }
+        }
+        workspace.settledCount = scanned;
+        if (metrics != null) metrics.bellmanFordQuery(System.nanoTime() - began, rounds, relaxed);
+        if (cycleNode >= 0) {
+            finishNegativeCycle(workspace);
+            if (listener != null) listener.negativeCycleDetected();
             throw new IllegalStateException("Graph contains a negative weight cycle");
-            
         }
+        return workspace.view();
+    }
 
-        return new ArrayList<>(distanceList);
+    // Workspace counterpart of finishNegativeCycle; only runs on the exceptional path, so it
+    // allocates
+    private void finishNegativeCycle(SearchWorkspace workspace) {
+        int n = graph.size();
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        int[] weights = graph.weights;
+        for (int i = 1; i < n; i++) {
+            boolean updated = false;
+            for (int u = 0; u < n; u++) {
+                int du = workspace.distance(u);
+                if (du == INF) continue;
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    int v = targets[e];
+                    long newDistance = (long) du + weights[e];
+                    if (newDistance < workspace.distance(v)) {
+                        workspace.set(v, (int) newDistance, u);
+                        updated = true;
+                    }
+                }
+            }
+            if (!updated) break;
+        }
+
+        boolean[] marked = new boolean[n];
+        int[] stack = new int[n];
+        int count = 0;
+        for (int u = 0; u < n; u++) {
+            int du = workspace.distance(u);
+            if (du == INF) continue;
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = targets[e];
+                if ((long) du + weights[e] < workspace.distance(v) && !marked[v]) {
+                    marked[v] = true;
+                    stack[count++] = v;
+                }
+            }
+        }
+        // Sets every node reachable from the seeds to -INF, keeping its parent
+        while (count > 0) {
+            int u = stack[--count];
+            workspace.set(u, -INF, workspace.parent(u));
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                int v = graph.targets[e];
+                if (!marked[v]) {
+                    marked[v] = true;
+                    stack[count++] = v;
+                }
+            }
+        }
     }
 
-    private boolean hasNegativeCycle() {
-        for (int u = 0; u < adjacencyList.size(); u++) {
-            for (int[] edge : adjacencyList.get(u)) {
-                int v = edge[0];
-                int weight = edge[1];
-                if (distanceList.get(u) != INF &&
-                        distanceList.get(u) + weight < distanceList.get(v)) {
-                    return true;
+    // Sets every node reachable from the given seeds to -INF
+    private void markReachable(int[] seeds, int count, boolean[] marked) {
+        int[] stack = Arrays.copyOf(seeds, Math.max(graph.size(), 1));
+        while (count > 0) {
+            int u = stack[--count];
+            distanceList[u] = -INF;
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                int v = graph.targets[e];
+                if (!marked[v]) {
+                    marked[v] = true;
+                    stack[count++] = v;
                 }
             }
         }
-        return false;
     }
 
-    private String formatDistanceList() {
-        StringBuilder sb = new StringBuilder("[");
-        for (int i = 0; i < distanceList.size(); i++) {
-            if (i > 0) sb.append(", ");
-            sb.append(distanceList.get(i) == INF ? "∞" : distanceList.get(i));
+    void setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
         }
-        sb.append("]");
-        return sb.toString();
+        this.parallelism = parallelism;
+    }
+
+    void setTraceListener(TraceListener listener) {
+        this.listener = listener;
+    }
+
+    void setMetrics(SolverMetrics metrics) {
+        this.metrics = metrics;
     }
 
     ArrayList<Integer> getPath(int start, int end) {
         ArrayList<Integer> p = new ArrayList<>();
-        if (distanceList.get(end) == INF) {
+        if (distanceList[end] == INF) {
             return p;  // No path exists
         }
         int current = end;
         int c=0;
-        while (current != start && c < adjacencyList.size()) {
+        while (current != start && c < graph.size()) {
             p.add(current);
-            current = path.get(current);
+            current = path[current];
             if (current == -1) {
                 return new ArrayList<>();  // No path exists
             }
             c++;
         }
-        if(c==adjacencyList.size())return new ArrayList<>();
+        if(c==graph.size())return new ArrayList<>();
         p.add(start);
         Collections.reverse(p);
         return p;
     }
 
 
-}
\ No newline at end of file
+}
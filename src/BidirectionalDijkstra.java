@@ -0,0 +1,142 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+// Point-to-point Dijkstra that searches forward from the start on the graph and backward from
+// the target on graph.reverse(). Every relaxed edge that reaches a node labelled by the other
+// side offers a candidate path length mu; the search stops once the two queue minima add up to
+// at least mu, since no undiscovered path can be shorter. Only nodes touched by the last query
+// are reset, so a query costs time proportional to the searched area, not to the graph.
+public class BidirectionalDijkstra {
+    Graph graph;
+    Graph reverse;
+    final int INF = Distances.INF;
+
+    // index 0 is the forward search, index 1 the backward search
+    private final int[][] distance = new int[2][];
+    private final int[][] parent = new int[2][];
+    private final boolean[][] settled = new boolean[2][];
+    private final IndexedMinHeap[] heap = new IndexedMinHeap[2];
+    private int[] touched;
+    private int touchedCount;
+
+    int settledCount;  // nodes settled by both searches in the last query
+    private int lastStart = -1;
+    private int lastTarget = -1;
+    private int meeting = -1;
+    private int best = INF;
+
+    BidirectionalDijkstra(Graph graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        if (graph.hasNegativeWeights()) {
+            throw new IllegalArgumentException("Dijkstra requires non-negative edge weights");
+        }
+        this.graph = graph;
+        this.reverse = graph.reverse();
+        int n = graph.size();
+        for (int side = 0; side < 2; side++) {
+            distance[side] = new int[n];
+            parent[side] = new int[n];
+            settled[side] = new boolean[n];
+            heap[side] = new IndexedMinHeap(n);
+            Arrays.fill(distance[side], INF);
+            Arrays.fill(parent[side], -1);
+        }
+        touched = new int[Math.max(n, 1)];
+    }
+
+    // Returns the shortest distance from start to target, or INF if there is no path
+    int shortestDistance(int start, int target) {
+        if (start < 0 || start >= graph.size() || target < 0 || target >= graph.size()) {
+            throw new IllegalArgumentException("Invalid node index");
+        }
+        reset();
+        lastStart = start;
+        lastTarget = target;
+        label(0, start, 0, start);
+        label(1, target, 0, target);
+        heap[0].insertOrDecrease(start, 0);
+        heap[1].insertOrDecrease(target, 0);
+        best = start == target ? 0 : INF;
+        meeting = start == target ? start : -1;
+
+        while (!heap[0].isEmpty() && !heap[1].isEmpty()) {
+            if (heap[0].peekKey() + heap[1].peekKey() >= best) break;
+            // Grow the side with the smaller frontier key
+            int side = heap[0].peekKey() <= heap[1].peekKey() ? 0 : 1;
+            expand(side, side == 0 ? graph : reverse);
+        }
+        return best;
+    }
+
+    private void expand(int side, Graph g) {
+        int other = 1 - side;
+        int u = heap[side].poll();
+        settled[side][u] = true;
+        settledCount++;
+        int du = distance[side][u];
+        for (int e = g.offsets[u]; e < g.offsets[u + 1]; e++) {
+            int v = g.targets[e];
+            if (settled[side][v]) continue;
+            long newDistance = (long) du + g.weights[e];
+            if (newDistance < distance[side][v]) {
+                label(side, v, (int) newDistance, u);
+                heap[side].insertOrDecrease(v, newDistance);
+            }
+            // The edge closes a start -> target path when the other side has reached v
+            if (distance[other][v] != INF) {
+                long total = (long) distance[side][v] + distance[other][v];
+                if (total < best) {
+                    best = (int) total;
+                    meeting = v;
+                }
+            }
+        }
+    }
+
+    private void label(int side, int node, int value, int from) {
+        if (distance[0][node] == INF && distance[1][node] == INF) {
+            touched[touchedCount++] = node;
+        }
+        distance[side][node] = value;
+        parent[side][node] = from;
+    }
+
+    private void reset() {
+        for (int i = 0; i < touchedCount; i++) {
+            int node = touched[i];
+            for (int side = 0; side < 2; side++) {
+                distance[side][node] = INF;
+                parent[side][node] = -1;
+                settled[side][node] = false;
+            }
+        }
+        touchedCount = 0;
+        settledCount = 0;
+        heap[0].clear();
+        heap[1].clear();
+    }
+
+    // Path of the last query, in the same format as Dijkstra.getPath
+    ArrayList<Integer> getPath(int start, int end) {
+        if (start != lastStart || end != lastTarget) {
+            throw new IllegalStateException("getPath must follow shortestDistance for the same nodes");
+        }
+        ArrayList<Integer> p = new ArrayList<>();
+        if (meeting == -1) {
+            return p;  // No path exists
+        }
+        for (int current = meeting; current != start; current = parent[0][current]) {
+            p.add(current);
+        }
+        p.add(start);
+        Collections.reverse(p);
+        for (int current = meeting; current != end; ) {
+            current = parent[1][current];
+            p.add(current);
+        }
+        return p;
+    }
+}
@@ -0,0 +1,190 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+// Cache-tiled Floyd-Warshall over flat row-major matrices (cell (i, j) lives at i * n + j).
+// For each diagonal block kb the B x B tiles are processed in the standard three phases:
+// the diagonal tile, then the tiles in row kb and column kb, then all remaining tiles.
+// Each phase only reads tiles that earlier phases of the same round have finished, so a tile
+// stays in cache while its B pivots are applied. With a pool, the tiles of phases 2 and 3 are
+// independent of each other and run in parallel, which leaves the result bit-identical.
+//
+// Inside a round a tile sees pivots of its block that the textbook order would only apply
+// later, so while the rounds run the second matrix holds via (the highest pivot on each stored
+// path, -1 for a direct edge) rather than next pointers. RowKernel breaks ties on via, which
+// makes the chosen paths those of FloydWarshall.Kernel.SCALAR, and finishNext() turns via
+// into the same next matrix.
+public class BlockedFloydWarshall {
+    static final int INF = Distances.INF;
+
+    final int[] dist;
+    final int[] via;
+    final int n;
+    final int tileSize;
+    final ForkJoinPool pool;  // null runs everything on the calling thread
+    final RowKernel rowKernel;
+
+    // via must start as -1 everywhere
+    BlockedFloydWarshall(int[] dist, int[] via, int n, int tileSize) {
+        this(dist, via, n, tileSize, null, RowKernel.SCALAR);
+    }
+
+    BlockedFloydWarshall(int[] dist, int[] via, int n, int tileSize, ForkJoinPool pool, RowKernel rowKernel) {
+        if (tileSize <= 0) {
+            throw new IllegalArgumentException("Tile size must be positive");
+        }
+        this.dist = dist;
+        this.via = via;
+        this.n = n;
+        this.tileSize = tileSize;
+        this.pool = pool;
+        this.rowKernel = rowKernel;
+    }
+
+    int blockCount() {
+        return (n + tileSize - 1) / tileSize;
+    }
+
+    void run() {
+        for (int kb = 0; kb < blockCount(); kb++) {
+            round(kb);
+        }
+    }
+
+    void round(int kb) {
+        int blocks = blockCount();
+        // Phase 1: the diagonal tile depends only on itself
+        relaxTile(kb, kb, kb);
+
+        // Phase 2: tiles sharing a row or column with the diagonal tile
+        forBlocks(blocks, (from, to) -> {
+            for (int b = from; b < to; b++) {
+                if (b == kb) continue;
+                relaxTile(kb, b, kb);
+                relaxTile(b, kb, kb);
+            }
+        });
+
+        // Phase 3: everything else reads only the row and column tiles finished above
+        forBlocks(blocks, (from, to) -> {
+            for (int ib = from; ib < to; ib++) {
+                if (ib == kb) continue;
+                for (int jb = 0; jb < blocks; jb++) {
+                    if (jb == kb) continue;
+                    relaxTile(ib, jb, kb);
+                }
+            }
+        });
+    }
+
+    private void forBlocks(int blocks, ParallelRange.Body body) {
+        if (pool == null) {
+            body.run(0, blocks);
+        } else {
+            ParallelRange.forEach(pool, 0, blocks, 1, body);
+        }
+    }
+
+    // Applies pivots k in block kb to the tile (ib, jb)
+    void relaxTile(int ib, int jb, int kb) {
+        int kEnd = Math.min(n, (kb + 1) * tileSize);
+        int iEnd = Math.min(n, (ib + 1) * tileSize);
+        int jStart = jb * tileSize;
+        int jEnd = Math.min(n, jStart + tileSize);
+        for (int k = kb * tileSize; k < kEnd; k++) {
+            int kRow = k * n;
+            for (int i = ib * tileSize; i < iEnd; i++) {
+                int iRow = i * n;
+                int dik = dist[iRow + k];
+                if (dik == INF) continue;
+                rowKernel.relax(dist, via, iRow, kRow, dik, Math.max(via[iRow + k], k), jStart, jEnd);
+            }
+        }
+    }
+
+    // After the main rounds, (i, j) can be made arbitrarily short exactly when some k with
+    // dist[k][k] < 0 is reachable from i and reaches j; FloydWarshall.Kernel.SCALAR marks the
+    // same pairs. Marking only turns finite entries into -INF, so rows can be marked
+    // independently. Returns the number of negative diagonal entries used as marking pivots.
+    int markNegativeCycles() {
+        int[] negative = negativeDiagonal(dist, n);
+        if (negative.length == 0) return 0;
+
+        ParallelRange.Body markRows = (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int iRow = i * n;
+                for (int k : negative) {
+                    if (dist[iRow + k] == INF) continue;
+                    int kRow = k * n;
+                    for (int j = 0; j < n; j++) {
+                        if (dist[kRow + j] != INF) {
+                            dist[iRow + j] = -INF;
+                        }
+                    }
+                }
+            }
+        };
+        if (pool == null) {
+            markRows.run(0, n);
+        } else {
+            ParallelRange.forEach(pool, 0, n, ParallelRange.grainFor(pool, n), markRows);
+        }
+        return negative.length;
+    }
+
+    // Replaces via with next pointers, after markNegativeCycles
+    void finishNext() {
+        ParallelRange.Body rows = (from, to) -> {
+            int[] count = new int[n + 2];
+            int[] order = new int[n];
+            for (int i = from; i < to; i++) {
+                viaToNext(i, dist, via, i * n, n, count, order);
+            }
+        };
+        if (pool == null) {
+            rows.run(0, n);
+        } else {
+            ParallelRange.forEach(pool, 0, n, ParallelRange.grainFor(pool, n), rows);
+        }
+    }
+
+    // Nodes k with dist[k][k] < 0 in a flat n x n matrix
+    static int[] negativeDiagonal(int[] dist, int n) {
+        int[] negative = new int[n];
+        int count = 0;
+        for (int k = 0; k < n; k++) {
+            if (dist[k * n + k] < 0) negative[count++] = k;
+        }
+        return Arrays.copyOf(negative, count);
+    }
+
+    // Turns row i of via (n cells from offset) into next pointers in place. A direct edge leads
+    // to j; a path whose highest pivot is m starts like the path to m, which has a lower via and
+    // is therefore converted first. Pairs that are unreachable or -INF get -1. count (n + 2) and
+    // order (n) are scratch space.
+    static void viaToNext(int i, int[] dist, int[] via, int offset, int n, int[] count, int[] order) {
+        Arrays.fill(count, 0, n + 2, 0);
+        for (int j = 0; j < n; j++) {
+            count[via[offset + j] + 2]++;
+        }
+        for (int b = 1; b < n + 2; b++) {
+            count[b] += count[b - 1];
+        }
+        for (int j = 0; j < n; j++) {
+            order[count[via[offset + j] + 1]++] = j;
+        }
+        for (int p = 0; p < n; p++) {
+            int j = order[p];
+            int d = dist[offset + j];
+            int m = via[offset + j];
+            int next;
+            if (d == INF || d == -INF) {
+                next = -1;
+            } else if (m < 0) {
+                next = i == j ? -1 : j;
+            } else {
+                next = via[offset + m];
+            }
+            via[offset + j] = next;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+// Prints the solvers' iteration tables to System.out, as used by the interactive Main
+public class ConsoleTraceListener implements TraceListener {
+    final int INF = Distances.INF;
+
+    @Override
+    public void dijkstraStarted(int start) {
+        System.out.println("Iteration\tVisited\t\tDistance List");
+    }
+
+    @Override
+    public void dijkstraStep(int iteration, int node, int[] distances) {
+        System.out.printf("%d\t\t\t%c\t\t\t%s%n", iteration, (char) (node + 'A'), formatDistanceList(distances));
+    }
+
+    @Override
+    public void bellmanFordStarted(int start) {
+        System.out.println("Iteration\tDistance List");
+    }
+
+    @Override
+    public void bellmanFordPass(int pass, int[] distances) {
+        System.out.println(pass + "\t\t" + formatDistanceList(distances));
+    }
+
+    @Override
+    public void floydWarshallStep(int k, int[][] distanceMatrix) {
+        if (k < 0) {
+            System.out.println("Initial distance matrix:");
+        } else {
+            System.out.println("\nAfter considering intermediate node " + k + ":");
+        }
+        printDistanceMatrix(distanceMatrix);
+    }
+
+    @Override
+    public void floydWarshallNegativeCyclesMarked(int[][] distanceMatrix) {
+        System.out.println("\nAfter considering negative cycles :");
+        printDistanceMatrix(distanceMatrix);
+    }
+
+    @Override
+    public void negativeCycleDetected() {
+        System.out.println("Warning: Graph contains a negative weight cycle");
+    }
+
+    private String formatDistanceList(int[] distances) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < distances.length; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(distances[i] == INF ? "∞" : String.valueOf(distances[i]));
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+
+    private void printDistanceMatrix(int[][] distanceMatrix) {
+        StringBuilder sb = new StringBuilder();
+        for (int[] row : distanceMatrix) {
+            for (int distance : row) {
+                if (distance == INF) {
+                    sb.append("INF\t");
+                } else if (distance == -INF) {
+                    sb.append("-INF\t");
+                } else {
+                    sb.append(distance).append('\t');
+                }
+            }
+            sb.append('\n');
+        }
+        System.out.print(sb);
+    }
+}
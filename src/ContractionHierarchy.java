@@ -0,0 +1,317 @@
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// Contraction hierarchy built by ContractionHierarchyBuilder. Every node has a rank, and every
+// original edge or shortcut is stored once, at its lower-ranked end: upward edges u -> v with
+// rank[v] > rank[u] under u, and downward edges u -> v with rank[u] > rank[v] under v, pointing
+// back to u. A shortest path always climbs and then descends in rank, so a query runs two small
+// Dijkstra searches that only move upward: forward from the start over the upward edges and
+// backward from the target over the downward ones. A shortcut records the contracted node it
+// skips, which is how paths are unpacked again.
+public class ContractionHierarchy {
+    static final int INF = Distances.INF;
+    private static final int MAGIC = 0x43483031;  // "CH01"
+
+    final int size;
+    final int[] rank;
+    final int[] upOffsets;
+    final int[] upTargets;
+    final int[] upWeights;
+    final int[] upMiddles;  // contracted node the edge skips, or -1 for an original edge
+    final int[] downOffsets;
+    final int[] downSources;
+    final int[] downWeights;
+    final int[] downMiddles;
+
+    ContractionHierarchy(int size, int[] rank, int[] upOffsets, int[] upTargets, int[] upWeights, int[] upMiddles,
+                         int[] downOffsets, int[] downSources, int[] downWeights, int[] downMiddles) {
+        this.size = size;
+        this.rank = rank;
+        this.upOffsets = upOffsets;
+        this.upTargets = upTargets;
+        this.upWeights = upWeights;
+        this.upMiddles = upMiddles;
+        this.downOffsets = downOffsets;
+        this.downSources = downSources;
+        this.downWeights = downWeights;
+        this.downMiddles = downMiddles;
+    }
+
+    static ContractionHierarchy build(Graph graph, int parallelism) {
+        ContractionHierarchyBuilder builder = new ContractionHierarchyBuilder(graph);
+        builder.setParallelism(parallelism);
+        return builder.build();
+    }
+
+    int size() {
+        return size;
+    }
+
+    int shortcutCount() {
+        int count = 0;
+        for (int middle : upMiddles) {
+            if (middle != -1) count++;
+        }
+        for (int middle : downMiddles) {
+            if (middle != -1) count++;
+        }
+        return count;
+    }
+
+    // Queries keep per-search state, so each thread needs its own
+    Query newQuery() {
+        return new Query(this);
+    }
+
+    // Contracted node skipped by the stored edge from -> to, or -1 for an original edge
+    private int middleOf(int from, int to) {
+        if (rank[from] < rank[to]) {
+            for (int e = upOffsets[from]; e < upOffsets[from + 1]; e++) {
+                if (upTargets[e] == to) return upMiddles[e];
+            }
+        } else {
+            for (int e = downOffsets[to]; e < downOffsets[to + 1]; e++) {
+                if (downSources[e] == from) return downMiddles[e];
+            }
+        }
+        throw new IllegalStateException("Hierarchy has no edge " + from + " -> " + to);
+    }
+
+    // Appends the original nodes after from on the edge from -> to, ending with to
+    private void unpack(int from, int to, int middle, ArrayList<Integer> p) {
+        // Pending (from, to, middle) triples with the next edge along the path on top
+        int[] stack = new int[24];
+        int top = 0;
+        stack[top++] = from;
+        stack[top++] = to;
+        stack[top++] = middle;
+        while (top > 0) {
+            int m = stack[--top];
+            int b = stack[--top];
+            int a = stack[--top];
+            if (m == -1) {
+                p.add(b);
+                continue;
+            }
+            if (top + 6 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+            stack[top++] = m;
+            stack[top++] = b;
+            stack[top++] = middleOf(m, b);
+            stack[top++] = a;
+            stack[top++] = m;
+            stack[top++] = middleOf(a, m);
+        }
+    }
+
+    // Header (magic, node count, upward and downward edge counts), the ranks, then the upward and
+    // downward CSR arrays, all as little-endian ints
+    void save(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            IntFiles.write(channel, new int[] { MAGIC, size, upTargets.length, downSources.length });
+            IntFiles.write(channel, rank);
+            IntFiles.write(channel, upOffsets);
+            IntFiles.write(channel, upTargets);
+            IntFiles.write(channel, upWeights);
+            IntFiles.write(channel, upMiddles);
+            IntFiles.write(channel, downOffsets);
+            IntFiles.write(channel, downSources);
+            IntFiles.write(channel, downWeights);
+            IntFiles.write(channel, downMiddles);
+        }
+    }
+
+    static ContractionHierarchy load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            int[] header = IntFiles.read(channel, 4);
+            if (header[0] != MAGIC) {
+                throw new IOException("Not a contraction hierarchy file: " + file);
+            }
+            int n = header[1];
+            int up = header[2];
+            int down = header[3];
+            // Counts come from the file, so check them against its length before allocating
+            if (n < 0 || n > Integer.MAX_VALUE - 8 || up < 0 || down < 0) {
+                throw new IOException("Contraction hierarchy file is corrupt: " + file);
+            }
+            long expected = 4 * (4 + (long) n + 2 * ((long) n + 1) + 3 * (long) up + 3 * (long) down);
+            if (channel.size() != expected) {
+                throw new IOException("Contraction hierarchy file has " + channel.size() + " bytes, expected "
+                        + expected + ": " + file);
+            }
+            int[] rank = IntFiles.read(channel, n);
+            int[] upOffsets = IntFiles.read(channel, n + 1);
+            int[] upTargets = IntFiles.read(channel, up);
+            int[] upWeights = IntFiles.read(channel, up);
+            int[] upMiddles = IntFiles.read(channel, up);
+            int[] downOffsets = IntFiles.read(channel, n + 1);
+            int[] downSources = IntFiles.read(channel, down);
+            int[] downWeights = IntFiles.read(channel, down);
+            int[] downMiddles = IntFiles.read(channel, down);
+            if (upOffsets[n] != up || downOffsets[n] != down) {
+                throw new IOException("Contraction hierarchy file is corrupt: " + file);
+            }
+            return new ContractionHierarchy(n, rank, upOffsets, upTargets, upWeights, upMiddles,
+                    downOffsets, downSources, downWeights, downMiddles);
+        }
+    }
+
+    // Bidirectional upward search. A side stops once its smallest key reaches the best meeting
+    // distance found so far; only nodes touched by the last query are reset.
+    static class Query {
+        final ContractionHierarchy hierarchy;
+
+        // index 0 is the forward search, index 1 the backward search
+        private final int[][] distance = new int[2][];
+        private final int[][] parent = new int[2][];
+        private final int[][] parentEdge = new int[2][];
+        private final IndexedMinHeap[] heap = new IndexedMinHeap[2];
+        private final int[] touched;
+        private int touchedCount;
+
+        int settledCount;  // nodes settled by both searches in the last query
+        private int lastStart = -1;
+        private int lastTarget = -1;
+        private int meeting = -1;
+
+        Query(ContractionHierarchy hierarchy) {
+            this.hierarchy = hierarchy;
+            int n = hierarchy.size;
+            for (int side = 0; side < 2; side++) {
+                distance[side] = new int[n];
+                parent[side] = new int[n];
+                parentEdge[side] = new int[n];
+                heap[side] = new IndexedMinHeap(n);
+                Arrays.fill(distance[side], INF);
+                Arrays.fill(parent[side], -1);
+            }
+            touched = new int[Math.max(n, 1)];
+        }
+
+        // Returns the shortest distance from start to target, or INF if there is no path
+        int shortestDistance(int start, int target) {
+            if (start < 0 || start >= hierarchy.size || target < 0 || target >= hierarchy.size) {
+                throw new IllegalArgumentException("Invalid node index");
+            }
+            reset();
+            lastStart = start;
+            lastTarget = target;
+            label(0, start, 0, start, -1);
+            label(1, target, 0, target, -1);
+            heap[0].insertOrDecrease(start, 0);
+            heap[1].insertOrDecrease(target, 0);
+            meeting = -1;
+            int best = INF;
+
+            while (true) {
+                boolean forward = !heap[0].isEmpty() && heap[0].peekKey() < best;
+                boolean backward = !heap[1].isEmpty() && heap[1].peekKey() < best;
+                if (!forward && !backward) break;
+                int side = forward && (!backward || heap[0].peekKey() <= heap[1].peekKey()) ? 0 : 1;
+                int u = expand(side);
+                if (distance[1 - side][u] != INF) {
+                    long total = (long) distance[0][u] + distance[1][u];
+                    if (total < best) {
+                        best = (int) total;
+                        meeting = u;
+                    }
+                }
+            }
+            return best;
+        }
+
+        private int expand(int side) {
+            int[] offsets = side == 0 ? hierarchy.upOffsets : hierarchy.downOffsets;
+            int[] nodes = side == 0 ? hierarchy.upTargets : hierarchy.downSources;
+            int[] weights = side == 0 ? hierarchy.upWeights : hierarchy.downWeights;
+            int u = heap[side].poll();
+            settledCount++;
+            int du = distance[side][u];
+            if (stalled(side, u, du)) return u;
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = nodes[e];
+                long newDistance = (long) du + weights[e];
+                if (newDistance < distance[side][v]) {
+                    label(side, v, (int) newDistance, u, e);
+                    heap[side].insertOrDecrease(v, newDistance);
+                }
+            }
+            return u;
+        }
+
+        // Stall-on-demand: if a higher-ranked node this side has already labelled reaches u more
+        // cheaply over an edge the search may not use, u's label is not a shortest distance and
+        // nothing relaxed from it can lie on the shortest path
+        private boolean stalled(int side, int u, int du) {
+            int[] offsets = side == 0 ? hierarchy.downOffsets : hierarchy.upOffsets;
+            int[] nodes = side == 0 ? hierarchy.downSources : hierarchy.upTargets;
+            int[] weights = side == 0 ? hierarchy.downWeights : hierarchy.upWeights;
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int dx = distance[side][nodes[e]];
+                if (dx != INF && (long) dx + weights[e] < du) return true;
+            }
+            return false;
+        }
+
+        private void label(int side, int node, int value, int from, int edge) {
+            if (distance[0][node] == INF && distance[1][node] == INF) {
+                touched[touchedCount++] = node;
+            }
+            distance[side][node] = value;
+            parent[side][node] = from;
+            parentEdge[side][node] = edge;
+        }
+
+        private void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                int node = touched[i];
+                for (int side = 0; side < 2; side++) {
+                    distance[side][node] = INF;
+                    parent[side][node] = -1;
+                }
+            }
+            touchedCount = 0;
+            settledCount = 0;
+            heap[0].clear();
+            heap[1].clear();
+        }
+
+        // Path of the last query with shortcuts expanded, in the same format as Dijkstra.getPath
+        ArrayList<Integer> getPath(int start, int end) {
+            if (start != lastStart || end != lastTarget) {
+                throw new IllegalStateException("getPath must follow shortestDistance for the same nodes");
+            }
+            ArrayList<Integer> p = new ArrayList<>();
+            if (meeting == -1) {
+                return p;  // No path exists
+            }
+            // Upward half, collected from the meeting node back to the start
+            int count = 0;
+            for (int current = meeting; current != start; current = parent[0][current]) {
+                count++;
+            }
+            int[] climb = new int[count];
+            for (int current = meeting, i = count - 1; current != start; current = parent[0][current], i--) {
+                climb[i] = current;
+            }
+            p.add(start);
+            int previous = start;
+            for (int node : climb) {
+                hierarchy.unpack(previous, node, hierarchy.upMiddles[parentEdge[0][node]], p);
+                previous = node;
+            }
+            // Downward half, following the backward search's parents towards the end
+            for (int current = meeting; current != end; current = parent[1][current]) {
+                int next = parent[1][current];
+                hierarchy.unpack(current, next, hierarchy.downMiddles[parentEdge[1][current]], p);
+            }
+            return p;
+        }
+    }
+}
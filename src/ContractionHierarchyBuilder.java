@@ -0,0 +1,362 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+// Preprocessing for ContractionHierarchy. Nodes are contracted in rounds: a round takes every
+// remaining node whose priority (edge difference plus the number of contracted neighbours) is
+// lower than that of all its remaining neighbours. Those nodes are pairwise non-adjacent, so their
+// shortcuts are computed in parallel against the same overlay graph. Witness searches skip every
+// node of the round, so no witness relies on a node that is removed together with the node it
+// stands in for. Shortcuts are then applied on the calling thread and the priorities of the
+// touched neighbours are recomputed, again in parallel.
+public class ContractionHierarchyBuilder {
+    static final int INF = Distances.INF;
+
+    final int size;
+    int parallelism = Runtime.getRuntime().availableProcessors();
+    int witnessSettleLimit = 500;  // nodes a witness search may settle before giving up
+
+    // Overlay of the nodes not contracted yet; in[v] holds the sources of edges into v
+    private final EdgeList[] out;
+    private final EdgeList[] in;
+    private final boolean[] inRound;
+    private final int[] priority;
+    private final int[] contractedNeighbours;
+    private final int[] depth;  // longest chain of contracted nodes leading to the node
+    private boolean built;
+
+    ContractionHierarchyBuilder(Graph graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        if (graph.hasNegativeWeights()) {
+            throw new IllegalArgumentException("Contraction hierarchies require non-negative edge weights");
+        }
+        size = graph.size();
+        out = new EdgeList[size];
+        in = new EdgeList[size];
+        for (int v = 0; v < size; v++) {
+            out[v] = new EdgeList();
+            in[v] = new EdgeList();
+        }
+        inRound = new boolean[size];
+        priority = new int[size];
+        contractedNeighbours = new int[size];
+        depth = new int[size];
+        // Parallel edges collapse to the lightest one and self-loops never lie on a shortest path
+        for (int u = 0; u < size; u++) {
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                if (graph.targets[e] != u) {
+                    addEdge(u, graph.targets[e], graph.weights[e], -1);
+                }
+            }
+        }
+    }
+
+    void setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.parallelism = parallelism;
+    }
+
+    void setWitnessSettleLimit(int witnessSettleLimit) {
+        if (witnessSettleLimit <= 0) {
+            throw new IllegalArgumentException("Witness settle limit must be positive");
+        }
+        this.witnessSettleLimit = witnessSettleLimit;
+    }
+
+    ContractionHierarchy build() {
+        if (built) {
+            throw new IllegalStateException("Builder has already been built");
+        }
+        built = true;
+        int[] rank = new int[size];
+        EdgeList[] up = new EdgeList[size];
+        EdgeList[] down = new EdgeList[size];
+        int[] remaining = new int[size];
+        for (int v = 0; v < size; v++) {
+            remaining[v] = v;
+        }
+        int remainingCount = size;
+        int[] round = new int[size];
+        int[] dirty = new int[size];
+        boolean[] isDirty = new boolean[size];
+        int nextRank = 0;
+
+        ThreadLocal<WitnessSearch> searches = ThreadLocal.withInitial(WitnessSearch::new);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            updatePriorities(pool, searches, remaining, remainingCount);
+            while (remainingCount > 0) {
+                int roundSize = 0;
+                for (int i = 0; i < remainingCount; i++) {
+                    int v = remaining[i];
+                    if (isLocalMinimum(v)) round[roundSize++] = v;
+                }
+                for (int r = 0; r < roundSize; r++) {
+                    inRound[round[r]] = true;
+                }
+
+                ShortcutList[] shortcuts = new ShortcutList[roundSize];
+                int[] selected = round;
+                ParallelRange.forEach(pool, 0, roundSize, ParallelRange.grainFor(pool, roundSize), (from, to) -> {
+                    WitnessSearch search = searches.get();
+                    for (int r = from; r < to; r++) {
+                        shortcuts[r] = new ShortcutList();
+                        findShortcuts(selected[r], search, shortcuts[r]);
+                    }
+                });
+
+                int dirtyCount = 0;
+                for (int r = 0; r < roundSize; r++) {
+                    int v = round[r];
+                    rank[v] = nextRank++;
+                    // Every remaining neighbour is contracted later, so v's edges are final now
+                    up[v] = out[v];
+                    down[v] = in[v];
+                    for (int i = 0; i < out[v].size; i++) {
+                        int w = out[v].nodes[i];
+                        in[w].remove(v);
+                        contractedNeighbours[w]++;
+                        depth[w] = Math.max(depth[w], depth[v] + 1);
+                        if (!isDirty[w]) {
+                            isDirty[w] = true;
+                            dirty[dirtyCount++] = w;
+                        }
+                    }
+                    for (int i = 0; i < in[v].size; i++) {
+                        int u = in[v].nodes[i];
+                        out[u].remove(v);
+                        contractedNeighbours[u]++;
+                        depth[u] = Math.max(depth[u], depth[v] + 1);
+                        if (!isDirty[u]) {
+                            isDirty[u] = true;
+                            dirty[dirtyCount++] = u;
+                        }
+                    }
+                    ShortcutList list = shortcuts[r];
+                    for (int i = 0; i < list.size; i++) {
+                        addEdge(list.from[i], list.to[i], list.weight[i], v);
+                    }
+                    out[v] = null;
+                    in[v] = null;
+                    inRound[v] = false;
+                }
+
+                int kept = 0;
+                for (int i = 0; i < remainingCount; i++) {
+                    if (out[remaining[i]] != null) remaining[kept++] = remaining[i];
+                }
+                remainingCount = kept;
+                for (int i = 0; i < dirtyCount; i++) {
+                    isDirty[dirty[i]] = false;
+                }
+                updatePriorities(pool, searches, dirty, dirtyCount);
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return toHierarchy(rank, up, down);
+    }
+
+    private void updatePriorities(ForkJoinPool pool, ThreadLocal<WitnessSearch> searches, int[] nodes, int count) {
+        ParallelRange.forEach(pool, 0, count, ParallelRange.grainFor(pool, count), (from, to) -> {
+            WitnessSearch search = searches.get();
+            for (int i = from; i < to; i++) {
+                int v = nodes[i];
+                int added = findShortcuts(v, search, null);
+                priority[v] = 2 * (added - in[v].size - out[v].size) + contractedNeighbours[v] + depth[v];
+            }
+        });
+    }
+
+    // Lower priority than every remaining neighbour, ties broken by node id
+    private boolean isLocalMinimum(int v) {
+        return precedesAll(v, out[v]) && precedesAll(v, in[v]);
+    }
+
+    private boolean precedesAll(int v, EdgeList neighbours) {
+        for (int i = 0; i < neighbours.size; i++) {
+            int x = neighbours.nodes[i];
+            if (priority[x] < priority[v] || (priority[x] == priority[v] && x < v)) return false;
+        }
+        return true;
+    }
+
+    // Counts the shortcuts that removing v needs, and records them when sink is not null:
+    // u -> v -> w needs one unless a witness path avoiding v is no longer
+    private int findShortcuts(int v, WitnessSearch search, ShortcutList sink) {
+        EdgeList sources = in[v];
+        EdgeList targets = out[v];
+        int count = 0;
+        for (int a = 0; a < sources.size; a++) {
+            int u = sources.nodes[a];
+            long bound = -1;
+            for (int b = 0; b < targets.size; b++) {
+                long candidate = (long) sources.weights[a] + targets.weights[b];
+                if (targets.nodes[b] != u && candidate < INF) bound = Math.max(bound, candidate);
+            }
+            if (bound < 0) continue;
+            search.run(u, v, bound, targets);
+            for (int b = 0; b < targets.size; b++) {
+                int w = targets.nodes[b];
+                long candidate = (long) sources.weights[a] + targets.weights[b];
+                if (w == u || candidate >= INF || search.distance[w] <= candidate) continue;
+                count++;
+                if (sink != null) sink.add(u, w, (int) candidate);
+            }
+        }
+        return count;
+    }
+
+    // Adds u -> v or lowers the weight of the existing edge
+    private void addEdge(int u, int v, int weight, int middle) {
+        int i = out[u].indexOf(v);
+        if (i < 0) {
+            out[u].add(v, weight, middle);
+            in[v].add(u, weight, middle);
+        } else if (weight < out[u].weights[i]) {
+            out[u].weights[i] = weight;
+            out[u].middles[i] = middle;
+            int j = in[v].indexOf(u);
+            in[v].weights[j] = weight;
+            in[v].middles[j] = middle;
+        }
+    }
+
+    private ContractionHierarchy toHierarchy(int[] rank, EdgeList[] up, EdgeList[] down) {
+        int[] upOffsets = new int[size + 1];
+        int[] downOffsets = new int[size + 1];
+        for (int v = 0; v < size; v++) {
+            upOffsets[v + 1] = upOffsets[v] + up[v].size;
+            downOffsets[v + 1] = downOffsets[v] + down[v].size;
+        }
+        int[] upTargets = new int[upOffsets[size]];
+        int[] upWeights = new int[upOffsets[size]];
+        int[] upMiddles = new int[upOffsets[size]];
+        int[] downSources = new int[downOffsets[size]];
+        int[] downWeights = new int[downOffsets[size]];
+        int[] downMiddles = new int[downOffsets[size]];
+        for (int v = 0; v < size; v++) {
+            up[v].copyTo(upTargets, upWeights, upMiddles, upOffsets[v]);
+            down[v].copyTo(downSources, downWeights, downMiddles, downOffsets[v]);
+        }
+        return new ContractionHierarchy(size, rank, upOffsets, upTargets, upWeights, upMiddles,
+                downOffsets, downSources, downWeights, downMiddles);
+    }
+
+    // Bounded Dijkstra on the overlay from one source, skipping the node being contracted and
+    // every node of the current round. Only touched entries are reset between searches.
+    private class WitnessSearch {
+        final int[] distance = new int[size];
+        final IndexedMinHeap heap = new IndexedMinHeap(size);
+        final int[] touched = new int[size];
+        int touchedCount;
+        final int[] targetStamp = new int[size];
+        int stamp;
+
+        WitnessSearch() {
+            Arrays.fill(distance, INF);
+        }
+
+        // Stops early once every target is settled, since their distances are then final
+        void run(int source, int avoid, long bound, EdgeList targets) {
+            for (int i = 0; i < touchedCount; i++) {
+                distance[touched[i]] = INF;
+            }
+            touchedCount = 0;
+            distance[source] = 0;
+            touched[touchedCount++] = source;
+            heap.insertOrDecrease(source, 0);
+            stamp++;
+            int open = 0;
+            for (int i = 0; i < targets.size; i++) {
+                int w = targets.nodes[i];
+                if (w != source && targetStamp[w] != stamp) {
+                    targetStamp[w] = stamp;
+                    open++;
+                }
+            }
+            int settled = 0;
+            while (open > 0 && !heap.isEmpty() && heap.peekKey() <= bound && settled < witnessSettleLimit) {
+                int u = heap.poll();
+                settled++;
+                if (targetStamp[u] == stamp) open--;
+                EdgeList edges = out[u];
+                for (int i = 0; i < edges.size; i++) {
+                    int v = edges.nodes[i];
+                    if (v == avoid || inRound[v]) continue;
+                    long newDistance = (long) distance[u] + edges.weights[i];
+                    if (newDistance < distance[v]) {
+                        if (distance[v] == INF) touched[touchedCount++] = v;
+                        distance[v] = (int) newDistance;
+                        heap.insertOrDecrease(v, newDistance);
+                    }
+                }
+            }
+            heap.clear();
+        }
+    }
+
+    // Edges of one node: the neighbour, the weight, and the contracted middle node or -1
+    static class EdgeList {
+        int[] nodes = new int[4];
+        int[] weights = new int[4];
+        int[] middles = new int[4];
+        int size;
+
+        int indexOf(int node) {
+            for (int i = 0; i < size; i++) {
+                if (nodes[i] == node) return i;
+            }
+            return -1;
+        }
+
+        void add(int node, int weight, int middle) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+                middles = Arrays.copyOf(middles, size * 2);
+            }
+            nodes[size] = node;
+            weights[size] = weight;
+            middles[size] = middle;
+            size++;
+        }
+
+        // Order does not matter, so the last edge fills the gap
+        void remove(int node) {
+            int i = indexOf(node);
+            size--;
+            nodes[i] = nodes[size];
+            weights[i] = weights[size];
+            middles[i] = middles[size];
+        }
+
+        void copyTo(int[] nodes, int[] weights, int[] middles, int offset) {
+            System.arraycopy(this.nodes, 0, nodes, offset, size);
+            System.arraycopy(this.weights, 0, weights, offset, size);
+            System.arraycopy(this.middles, 0, middles, offset, size);
+        }
+    }
+
+    private static class ShortcutList {
+        int[] from = new int[4];
+        int[] to = new int[4];
+        int[] weight = new int[4];
+        int size;
+
+        void add(int u, int w, int length) {
+            if (size == from.length) {
+                from = Arrays.copyOf(from, size * 2);
+                to = Arrays.copyOf(to, size * 2);
+                weight = Arrays.copyOf(weight, size * 2);
+            }
+            from[size] = u;
+            to[size] = w;
+            weight[size] = length;
+            size++;
+        }
+    }
+}
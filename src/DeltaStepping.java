@@ -0,0 +1,278 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Parallel single-source shortest paths for non-negative weights (Meyer & Sanders delta-stepping).
+// Tentative distances are grouped into buckets of width delta. The lowest non-empty bucket is
+// settled by repeatedly relaxing its light edges (weight <= delta) in parallel, and the heavy
+// edges of everything it settled are relaxed once afterwards. Results land in the same
+// distanceList/path arrays as Dijkstra, so getPath works the same way.
+public class DeltaStepping {
+    // Upper bound on the bucket ring, so a large maxWeight / delta cannot exhaust the heap
+    static final int MAX_BUCKETS = 1 << 16;
+
+    Graph graph;
+    int delta;
+    int parallelism = Runtime.getRuntime().availableProcessors();
+    int[] distanceList;
+    int[] path;
+    final int INF = Distances.INF;
+
+    // Distance in the high 32 bits and predecessor in the low 32 bits, so one CAS keeps both in step
+    private AtomicLongArray state;
+
+    DeltaStepping(Graph graph) {
+        this(graph, defaultDelta(graph));
+    }
+
+    DeltaStepping(Graph graph, int delta) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        if (graph.hasNegativeWeights()) {
+            throw new IllegalArgumentException("Delta-stepping requires non-negative edge weights");
+        }
+        if (delta <= 0) {
+            throw new IllegalArgumentException("Delta must be positive");
+        }
+        this.graph = graph;
+        this.delta = delta;
+        distanceList = new int[graph.size()];
+        path = new int[graph.size()];
+        Arrays.fill(distanceList, INF);
+        Arrays.fill(path, -1);
+    }
+
+    // Average edge weight: a common starting point that keeps light phases short
+    static int defaultDelta(Graph graph) {
+        if (graph.edgeCount() == 0) return 1;
+        long sum = 0;
+        for (int weight : graph.weights) {
+            sum += weight;
+        }
+        return (int) Math.max(1, sum / graph.edgeCount());
+    }
+
+    ArrayList<Integer> deltaStepping(int start) {
+        solve(start);
+        ArrayList<Integer> distances = new ArrayList<>(distanceList.length);
+        for (int distance : distanceList) {
+            distances.add(distance);
+        }
+        return distances;
+    }
+
+    void solve(int start) {
+        if (start < 0 || start >= graph.size()) {
+            throw new IllegalArgumentException("Invalid start node");
+        }
+        // Start from a clean state so one instance can answer any number of queries
+        Arrays.fill(distanceList, INF);
+        Arrays.fill(path, -1);
+        int n = graph.size();
+        state = new AtomicLongArray(n);
+        for (int v = 0; v < n; v++) {
+            state.set(v, pack(distanceList[v], path[v]));
+        }
+        state.set(start, pack(0, start));
+
+        // Tentative distances never run more than maxWeight ahead of the bucket being settled,
+        // so a ring of maxWeight / delta + 2 buckets holds everything. Beyond MAX_BUCKETS the
+        // ring is capped: entries a whole ring or more ahead wait in far and move into the ring
+        // at the start of each lap. Slots are allocated on first use.
+        int maxWeight = 0;
+        for (int weight : graph.weights) {
+            maxWeight = Math.max(maxWeight, weight);
+        }
+        IntList[] buckets = new IntList[(int) Math.min(MAX_BUCKETS, (long) maxWeight / delta + 2)];
+        IntList far = new IntList();
+        slot(buckets, 0).add(start);
+        int pending = 1;  // entries in the ring
+
+        int[] seenInRound = new int[n];
+        int round = 0;
+        IntList settled = new IntList();
+        IntList changed = new IntList();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (long bucket = 0; pending > 0 || far.size > 0; bucket++) {
+                if (pending == 0) {
+                    // Everything left is at least a ring ahead, so skip the empty buckets between
+                    long nearest = Long.MAX_VALUE;
+                    for (int i = 0; i < far.size; i++) {
+                        long b = distanceOf(far.values[i]) / delta;
+                        if (b >= bucket) nearest = Math.min(nearest, b);
+                    }
+                    if (nearest == Long.MAX_VALUE) break;  // only entries of settled nodes were left
+                    bucket = nearest;
+                    pending += refill(far, buckets, bucket);
+                } else if (far.size > 0 && bucket % buckets.length == 0) {
+                    pending += refill(far, buckets, bucket);
+                }
+                IntList current = buckets[(int) (bucket % buckets.length)];
+                if (current == null || current.size == 0) continue;
+                settled.clear();
+
+                // Light edges can refill the current bucket, so drain it until it stays empty
+                while (current.size > 0) {
+                    pending -= current.size;
+                    round++;
+                    IntList frontier = new IntList();
+                    for (int i = 0; i < current.size; i++) {
+                        int v = current.values[i];
+                        if (seenInRound[v] == round || distanceOf(v) / delta != bucket) continue;
+                        seenInRound[v] = round;
+                        frontier.add(v);
+                        settled.add(v);
+                    }
+                    current.clear();
+                    changed.clear();
+                    relax(pool, frontier, true, changed);
+                    pending += distribute(changed, buckets, bucket, far);
+                }
+
+                // Heavy edges of every node settled in this bucket, once
+                changed.clear();
+                relax(pool, settled, false, changed);
+                pending += distribute(changed, buckets, bucket, far);
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        for (int v = 0; v < n; v++) {
+            long packed = state.get(v);
+            distanceList[v] = (int) (packed >>> 32);
+            path[v] = (int) packed;
+        }
+        state = null;
+    }
+
+    // Relaxes the light or heavy edges out of the given nodes; nodes whose distance dropped are
+    // appended to changed, once per chunk rather than once per edge under the lock
+    private void relax(ForkJoinPool pool, IntList nodes, boolean light, IntList changed) {
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        int[] weights = graph.weights;
+        ParallelRange.forEach(pool, 0, nodes.size, Math.max(64, ParallelRange.grainFor(pool, nodes.size)), (from, to) -> {
+            IntList local = new IntList();
+            for (int i = from; i < to; i++) {
+                int u = nodes.values[i];
+                int du = distanceOf(u);
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    int weight = weights[e];
+                    if ((weight <= delta) != light) continue;
+                    long newDistance = (long) du + weight;
+                    if (newDistance < INF && tryImprove(targets[e], (int) newDistance, u)) {
+                        local.add(targets[e]);
+                    }
+                }
+            }
+            if (local.size > 0) {
+                synchronized (changed) {
+                    changed.addAll(local);
+                }
+            }
+        });
+    }
+
+    private boolean tryImprove(int v, int newDistance, int parent) {
+        long current = state.get(v);
+        while (newDistance < (int) (current >>> 32)) {
+            if (state.compareAndSet(v, current, pack(newDistance, parent))) {
+                return true;
+            }
+            current = state.get(v);
+        }
+        return false;
+    }
+
+    // Files each changed node under its bucket; returns how many went into the ring
+    private int distribute(IntList changed, IntList[] buckets, long bucket, IntList far) {
+        int added = 0;
+        for (int i = 0; i < changed.size; i++) {
+            int v = changed.values[i];
+            long b = distanceOf(v) / delta;
+            if (b - bucket >= buckets.length) {
+                far.add(v);
+            } else {
+                slot(buckets, b).add(v);
+                added++;
+            }
+        }
+        return added;
+    }
+
+    // Moves the entries of far that now fit in the ring; entries of nodes already settled before
+    // bucket are dropped. Returns how many went into the ring.
+    private int refill(IntList far, IntList[] buckets, long bucket) {
+        int added = 0;
+        int kept = 0;
+        for (int i = 0; i < far.size; i++) {
+            int v = far.values[i];
+            long b = distanceOf(v) / delta;
+            if (b < bucket) continue;
+            if (b - bucket >= buckets.length) {
+                far.values[kept++] = v;
+            } else {
+                slot(buckets, b).add(v);
+                added++;
+            }
+        }
+        far.size = kept;
+        return added;
+    }
+
+    private static IntList slot(IntList[] buckets, long bucket) {
+        int index = (int) (bucket % buckets.length);
+        if (buckets[index] == null) {
+            buckets[index] = new IntList();
+        }
+        return buckets[index];
+    }
+
+    private int distanceOf(int v) {
+        return (int) (state.get(v) >>> 32);
+    }
+
+    private static long pack(int distance, int parent) {
+        return ((long) distance << 32) | (parent & 0xffffffffL);
+    }
+
+    void setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.parallelism = parallelism;
+    }
+
+    ArrayList<Integer> getPath(int start, int end) {
+        return Dijkstra.buildPath(distanceList, path, start, end);
+    }
+
+    // Growable int array used for buckets and frontiers
+    static class IntList {
+        int[] values = new int[16];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(IntList other) {
+            if (size + other.size > values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length * 2, size + other.size));
+            }
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+}
@@ -1,95 +1,297 @@
 import java.util.*;
 
 public class Dijkstra {
-    // Each inner ArrayList represents [neighbor, weight] pairs
-    ArrayList<ArrayList<int[]>> adjacencyList;
-    ArrayList<Integer> distanceList;
-    ArrayList<Integer> path;
+    // LAZY is the original PriorityQueue with stale entries, INDEXED uses IndexedMinHeap
+    enum QueueType { LAZY, INDEXED }
+
+    Graph graph;
+    QueueType queueType;
+    IndexedMinHeap heap;
+    TraceListener listener;  // null unless tracing was requested
+    SolverMetrics metrics;  // null unless metrics were requested
+    int[] distanceList;
+    int[] path;
     boolean[] visited;  // Tracks visited nodes
-    final int INF = Integer.MAX_VALUE / 2;  // To prevent overflow when adding weights
+    int settledCount;  // nodes settled by the last query
+    // Counters of the last query, reported to metrics
+    long edgesScanned;
+    long relaxations;
+    long heapPushes;
+    long heapPops;
+    final int INF = Distances.INF;  // To prevent overflow when adding weights
 
     Dijkstra(ArrayList<ArrayList<int[]>> adjacencyList) {
-        if (adjacencyList == null) {
-            throw new IllegalArgumentException("Adjacency list cannot be null");
+        this(Graph.fromAdjacencyList(adjacencyList));
+    }
+
+    Dijkstra(Graph graph) {
+        this(graph, QueueType.INDEXED);
+    }
+
+    Dijkstra(Graph graph, QueueType queueType) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        if (graph.hasNegativeWeights()) {
+            throw new IllegalArgumentException("Dijkstra requires non-negative edge weights");
         }
-        this.adjacencyList = new ArrayList<>(adjacencyList);
-        distanceList = new ArrayList<>();
-        path = new ArrayList<>();
-        visited = new boolean[adjacencyList.size()];
+        this.graph = graph;
+        this.queueType = queueType;
+        distanceList = new int[graph.size()];
+        path = new int[graph.size()];
+        visited = new boolean[graph.size()];
 
         // Initialize distances to infinity, paths to -1 (unreachable), and visited to false
-        for (int i = 0; i < adjacencyList.size(); i++) {
-            distanceList.add(INF);
-            path.add(-1);
-            visited[i] = false;
-        }
+        Arrays.fill(distanceList, INF);
+        Arrays.fill(path, -1);
     }
 
     ArrayList<Integer> dijkstra(int start) {
-        if (start < 0 || start >= adjacencyList.size()) {
+        solve(start);
+        ArrayList<Integer> distances = new ArrayList<>(distanceList.length);
+        for (int distance : distanceList) {
+            distances.add(distance);
+        }
+        return distances;
+    }
+
+    // Runs the search without boxing a copy of the result; read distanceList and path afterwards
+    void solve(int start) {
+        solve(start, -1);
+    }
+
+    // Point-to-point query: stops as soon as target is settled and returns its distance (INF if
+    // unreachable). Only distances of settled nodes are final afterwards, which includes the
+    // whole path from start to target.
+    int shortestDistance(int start, int target) {
+        if (target < 0 || target >= graph.size()) {
+            throw new IllegalArgumentException("Invalid target node");
+        }
+        solve(start, target);
+        return distanceList[target];
+    }
+
+    // A* towards target: the queue is ordered by distance + heuristic estimate, so with a good
+    // lower bound far fewer nodes are settled before target. Heuristic.ZERO gives plain Dijkstra.
+    int aStar(int start, int target, Heuristic heuristic) {
+        if (target < 0 || target >= graph.size()) {
+            throw new IllegalArgumentException("Invalid target node");
+        }
+        if (heuristic == null) {
+            throw new IllegalArgumentException("Heuristic cannot be null");
+        }
+        solve(start, target, heuristic);
+        return distanceList[target];
+    }
+
+    private void solve(int start, int target) {
+        solve(start, target, null);
+    }
+
+    // target -1 settles the whole graph; a null heuristic orders the queue by distance alone
+    private void solve(int start, int target, Heuristic heuristic) {
+        if (start < 0 || start >= graph.size()) {
             throw new IllegalArgumentException("Invalid start node");
         }
+        // Start from a clean state so one instance can answer any number of queries
+        Arrays.fill(distanceList, INF);
+        Arrays.fill(path, -1);
+        Arrays.fill(visited, false);
 
-        // Priority queue of [node, distance] pairs, sorted by distance
-        PriorityQueue<int[]> pq = new PriorityQueue<>(Comparator.comparingInt(a -> a[1]));
+        distanceList[start] = 0;
+        path[start] = start;  // The path to start is itself
 
-        // Initialize with start node (distance 0)
-        pq.add(new int[]{start, 0});
-        distanceList.set(start, 0);
-        path.set(start, start);  // The path to start is itself
+        if (listener != null) listener.dijkstraStarted(start);
+        long began = metrics != null ? System.nanoTime() : 0;
+        if (queueType == QueueType.INDEXED) {
+            runIndexed(start, target, heuristic);
+        } else {
+            runLazy(start, target, heuristic);
+        }
+        if (metrics != null) {
+            metrics.dijkstraQuery(System.nanoTime() - began, settledCount, edgesScanned, relaxations,
+                    heapPushes, heapPops, heapPops - settledCount);
+        }
+    }
+
+    // Binary PriorityQueue with lazy deletion: a node is pushed again on every improvement
+    // and stale entries are skipped through the visited check
+    private void runLazy(int start, int target, Heuristic heuristic) {
+        // Priority queue of [node, key] pairs, sorted by key. The key is the distance plus the
+        // heuristic, which can pass Integer.MAX_VALUE, so it is kept as a long as in runIndexed.
+        PriorityQueue<long[]> pq = new PriorityQueue<>(Comparator.comparingLong(a -> a[1]));
 
-        System.out.println("Iteration\tVisited\t\tDistance List");
+        // Initialize with start node (distance 0)
+        pq.add(new long[]{start, 0});
         int iteration = 0;
-        final int MAX_ITERATIONS = 1000;
+        settledCount = 0;
+        long scanned = 0;
+        long relaxed = 0;
+        long pushes = 1;
+        long pops = 0;
 
         while (!pq.isEmpty()) {
-            if (iteration >= MAX_ITERATIONS) {
-                System.out.println("Terminating after 1000 iterations (possible negative cycle).");
-                break;
-            }
-            int[] current = pq.poll();
-            int node = current[0];
-            int distance = current[1];
+            int node = (int) pq.poll()[0];
+            pops++;
 
             // Skip if already visited
             if (visited[node]) continue;
             visited[node] = true;  // Mark as visited
+            int distance = distanceList[node];
 
-            // Format the distance list for better readability
-            String distanceStr = "[";
-            for (int i = 0; i < distanceList.size(); i++) {
-                if (i > 0) distanceStr += ", ";
-                distanceStr += (distanceList.get(i) == INF ? "∞" : distanceList.get(i));
-            }
-            distanceStr += "]";
-
-            System.out.printf("%d\t\t\t%c\t\t\t%s%n", iteration, (char) (node + 'A'), distanceStr);
+            if (listener != null) listener.dijkstraStep(iteration, node, distanceList);
             iteration++;
+            settledCount = iteration;
+            if (node == target) break;
+            scanned += graph.offsets[node + 1] - graph.offsets[node];
 
             // Visit all neighbors
-            for (int[] neighbor : adjacencyList.get(node)) {
-                int nextNode = neighbor[0];
-                int weight = neighbor[1];
-                int newDistance = distance + weight;
+            for (int e = graph.offsets[node]; e < graph.offsets[node + 1]; e++) {
+                int nextNode = graph.targets[e];
+                // Widen before adding so large weights cannot wrap around
+                long newDistance = (long) distance + graph.weights[e];
 
                 // Relax the edge if a shorter path is found
-                if (!visited[nextNode] && newDistance < distanceList.get(nextNode)) {
-                    distanceList.set(nextNode, newDistance);
-                    path.set(nextNode, node);  // Update the best path to nextNode
-                    pq.add(new int[]{nextNode, newDistance});
+                if (!visited[nextNode] && newDistance < distanceList[nextNode]) {
+                    distanceList[nextNode] = (int) newDistance;
+                    path[nextNode] = node;  // Update the best path to nextNode
+                    long key = newDistance;
+                    if (heuristic != null) key += heuristic.estimate(nextNode, target);
+                    pq.add(new long[]{nextNode, key});
+                    relaxed++;
+                    pushes++;
                 }
             }
         }
-        return new ArrayList<>(distanceList);  // Return a copy
+        finishCounters(scanned, relaxed, pushes, pops);
+    }
+
+    // Indexed 4-ary heap with decrease-key: every node is queued at most once
+    private void runIndexed(int start, int target, Heuristic heuristic) {
+        if (heap == null) {
+            heap = new IndexedMinHeap(graph.size());
+        }
+        heap.clear();
+        heap.insertOrDecrease(start, 0);
+        int iteration = 0;
+        settledCount = 0;
+        long scanned = 0;
+        long relaxed = 0;
+        long pushes = 1;
+
+        while (!heap.isEmpty()) {
+            int node = heap.poll();
+            visited[node] = true;
+            int distance = distanceList[node];
+
+            if (listener != null) listener.dijkstraStep(iteration, node, distanceList);
+            iteration++;
+            settledCount = iteration;
+            if (node == target) break;
+            scanned += graph.offsets[node + 1] - graph.offsets[node];
+
+            for (int e = graph.offsets[node]; e < graph.offsets[node + 1]; e++) {
+                int nextNode = graph.targets[e];
+                long newDistance = (long) distance + graph.weights[e];
+
+                if (!visited[nextNode] && newDistance < distanceList[nextNode]) {
+                    distanceList[nextNode] = (int) newDistance;
+                    path[nextNode] = node;
+                    long key = newDistance;
+                    if (heuristic != null) key += heuristic.estimate(nextNode, target);
+                    // A decrease-key counts as a push; every node is popped at most once
+                    if (heap.insertOrDecrease(nextNode, key)) pushes++;
+                    relaxed++;
+                }
+            }
+        }
+        finishCounters(scanned, relaxed, pushes, settledCount);
+    }
+
+    private void finishCounters(long scanned, long relaxed, long pushes, long pops) {
+        edgesScanned = scanned;
+        relaxations = relaxed;
+        heapPushes = pushes;
+        heapPops = pops;
+    }
+
+    // Runs the query in a caller-owned workspace instead of this instance's arrays: no O(V)
+    // reset, no copies and, once the workspace is warm, no allocation. Only this method touches
+    // the workspace, so one Dijkstra can serve several threads that each bring their own.
+    // Tracing is not supported here; metrics are.
+    DistanceView solve(int start, SearchWorkspace workspace) {
+        run(start, -1, workspace);
+        return workspace.view();
+    }
+
+    // Point-to-point query in a workspace; distances of settled nodes are final afterwards
+    int shortestDistance(int start, int target, SearchWorkspace workspace) {
+        if (target < 0 || target >= graph.size()) {
+            throw new IllegalArgumentException("Invalid target node");
+        }
+        run(start, target, workspace);
+        return workspace.distance(target);
+    }
+
+    private void run(int start, int target, SearchWorkspace workspace) {
+        workspace.begin(start, graph.size());
+        long began = metrics != null ? System.nanoTime() : 0;
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        int[] weights = graph.weights;
+        IndexedMinHeap queue = workspace.heap;
+        workspace.set(start, 0, start);
+        queue.insertOrDecrease(start, 0);
+        int settled = 0;
+        long scanned = 0;
+        long relaxed = 0;
+        long pushes = 1;
+
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            workspace.setMarked(node, true);
+            settled++;
+            if (node == target) break;
+            int distance = workspace.distance[node];
+            scanned += offsets[node + 1] - offsets[node];
+
+            for (int e = offsets[node]; e < offsets[node + 1]; e++) {
+                int nextNode = targets[e];
+                long newDistance = (long) distance + weights[e];
+                if (!workspace.isMarked(nextNode) && newDistance < workspace.distance(nextNode)) {
+                    workspace.set(nextNode, (int) newDistance, node);
+                    if (queue.insertOrDecrease(nextNode, newDistance)) pushes++;
+                    relaxed++;
+                }
+            }
+        }
+        workspace.settledCount = settled;
+        if (metrics != null) {
+            metrics.dijkstraQuery(System.nanoTime() - began, settled, scanned, relaxed, pushes, settled, 0);
+        }
+    }
+
+    void setTraceListener(TraceListener listener) {
+        this.listener = listener;
+    }
+
+    void setMetrics(SolverMetrics metrics) {
+        this.metrics = metrics;
     }
 
     ArrayList<Integer> getPath(int start, int end) {
-        if (start < 0 || start >= adjacencyList.size() || end < 0 || end >= adjacencyList.size()) {
+        return buildPath(distanceList, path, start, end);
+    }
+
+    // Walks a predecessor array back from end; shared by the solvers that produce Dijkstra-style
+    // distanceList/path arrays so they all return the same node-list format
+    static ArrayList<Integer> buildPath(int[] distanceList, int[] path, int start, int end) {
+        if (start < 0 || start >= path.length || end < 0 || end >= path.length) {
             throw new IllegalArgumentException("Invalid node index");
         }
 
         ArrayList<Integer> p = new ArrayList<>();
-        if (distanceList.get(end) == INF) {
+        if (distanceList[end] == Distances.INF) {
             return p;  // No path exists
         }
 
@@ -97,7 +299,7 @@ public class Dijkstra {
         int current = end;
         while (current != start) {
             p.add(current);
-            current = path.get(current);
+            current = path[current];
             if (current == -1) {
                 return new ArrayList<>();  // No path exists
             }
@@ -106,4 +308,4 @@ public class Dijkstra {
         Collections.reverse(p);
         return p;
     }
-}
\ No newline at end of file
+}
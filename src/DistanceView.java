@@ -0,0 +1,63 @@
+import java.util.ArrayList;
+import java.util.Collections;
+
+// Read-only access to one single-source result without copying it. Views handed out by a
+// SearchWorkspace stay valid until that workspace runs its next query.
+public interface DistanceView {
+    int source();
+
+    int size();
+
+    // INF if the node is unreachable, -INF if it is behind a negative cycle
+    int distance(int node);
+
+    // -1 if the node is unreachable; the source is its own predecessor
+    int predecessor(int node);
+
+    default boolean isReachable(int node) {
+        return distance(node) != Distances.INF;
+    }
+
+    // Writes the path source .. end into buffer and returns its length, or 0 if there is none;
+    // the buffer needs room for size() nodes
+    default int pathInto(int end, int[] buffer) {
+        if (end < 0 || end >= size()) {
+            throw new IllegalArgumentException("Invalid node index");
+        }
+        if (!isReachable(end)) return 0;
+        int length = 0;
+        int current = end;
+        while (current != source()) {
+            // A chain longer than the graph only happens behind a negative cycle
+            if (current == -1 || length == size()) return 0;
+            buffer[length++] = current;
+            current = predecessor(current);
+        }
+        buffer[length++] = current;
+        for (int i = 0, j = length - 1; i < j; i++, j--) {
+            int swap = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = swap;
+        }
+        return length;
+    }
+
+    default ArrayList<Integer> getPath(int end) {
+        int[] buffer = new int[size()];
+        int length = pathInto(end, buffer);
+        ArrayList<Integer> path = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            path.add(buffer[i]);
+        }
+        return path;
+    }
+
+    // Copies the distances into an array the caller owns
+    default int[] toArray() {
+        int[] distances = new int[size()];
+        for (int node = 0; node < distances.length; node++) {
+            distances[node] = distance(node);
+        }
+        return distances;
+    }
+}
@@ -0,0 +1,23 @@
+// Sentinels and arithmetic shared by every solver. INF marks an unreachable node and -INF a node
+// whose distance is unbounded below because a negative cycle reaches it. Both sit at half the
+// type's range, so a finite distance plus one edge weight never wraps around before it is
+// compared. The long variants are for graphs whose path costs do not fit in an int.
+public final class Distances {
+    static final int INF = Integer.MAX_VALUE / 2;
+    static final long LONG_INF = Long.MAX_VALUE / 2;
+
+    private Distances() {
+    }
+
+    // a + b for a distance and an edge weight (or two distances) in [-LONG_INF, LONG_INF].
+    // INF absorbs everything, -INF absorbs every finite value, and finite sums that leave the
+    // range stick at the sentinels instead of wrapping.
+    static long saturatingAdd(long a, long b) {
+        if (a == LONG_INF || b == LONG_INF) return LONG_INF;
+        if (a == -LONG_INF || b == -LONG_INF) return -LONG_INF;
+        long sum = a + b;  // cannot overflow: |a| + |b| <= Long.MAX_VALUE - 1
+        if (sum >= LONG_INF) return LONG_INF;
+        if (sum <= -LONG_INF) return -LONG_INF;
+        return sum;
+    }
+}
@@ -0,0 +1,210 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// Mutable graph for weights that change while queries run. Each node keeps growable out- and
+// in-edge lists, at most one edge per ordered pair (parallel edges of the source Graph are
+// merged to the lightest), and every change bumps version() and is reported to the listeners.
+// Weights must be non-negative so Dijkstra-based repair stays valid.
+public class DynamicGraph {
+    // oldWeight is INF for an inserted edge and newWeight is INF for a deleted one
+    interface EdgeListener {
+        void edgeChanged(int u, int v, int oldWeight, int newWeight);
+    }
+
+    static final int INF = Distances.INF;
+
+    final int size;
+    int[][] outTargets;
+    int[][] outWeights;
+    int[] outCount;
+    int[][] inSources;
+    int[][] inWeights;
+    int[] inCount;
+    long version;
+    int edgeCount;
+    private final ArrayList<EdgeListener> listeners = new ArrayList<>();
+    private Graph snapshot;  // CSR copy of the current version, built on demand
+
+    DynamicGraph(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Number of nodes cannot be negative");
+        }
+        this.size = size;
+        outTargets = new int[size][];
+        outWeights = new int[size][];
+        outCount = new int[size];
+        inSources = new int[size][];
+        inWeights = new int[size][];
+        inCount = new int[size];
+        int[] empty = new int[0];
+        Arrays.fill(outTargets, empty);
+        Arrays.fill(outWeights, empty);
+        Arrays.fill(inSources, empty);
+        Arrays.fill(inWeights, empty);
+    }
+
+    DynamicGraph(Graph graph) {
+        this(graph.size());
+        if (graph.hasNegativeWeights()) {
+            throw new IllegalArgumentException("Dynamic graphs require non-negative edge weights");
+        }
+        // slot[v] is the position of u -> v in u's out-list while u is being copied
+        int[] slot = new int[size];
+        int[] owner = new int[size];
+        Arrays.fill(owner, -1);
+        for (int u = 0; u < size; u++) {
+            int degree = graph.degree(u);
+            outTargets[u] = new int[degree];
+            outWeights[u] = new int[degree];
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                int v = graph.targets[e];
+                int w = graph.weights[e];
+                if (owner[v] == u) {
+                    outWeights[u][slot[v]] = Math.min(outWeights[u][slot[v]], w);
+                    continue;
+                }
+                owner[v] = u;
+                slot[v] = outCount[u];
+                outTargets[u][outCount[u]] = v;
+                outWeights[u][outCount[u]++] = w;
+            }
+            edgeCount += outCount[u];
+        }
+        for (int u = 0; u < size; u++) {
+            for (int i = 0; i < outCount[u]; i++) {
+                appendIn(outTargets[u][i], u, outWeights[u][i]);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    int edgeCount() {
+        return edgeCount;
+    }
+
+    // Incremented by every change, so results computed against an older version can be detected
+    long version() {
+        return version;
+    }
+
+    // Weight of u -> v, or INF if there is no such edge
+    int weight(int u, int v) {
+        checkNodes(u, v);
+        int i = indexOf(outTargets[u], outCount[u], v);
+        return i < 0 ? INF : outWeights[u][i];
+    }
+
+    // Inserts u -> v or changes its weight
+    void setWeight(int u, int v, int w) {
+        checkNodes(u, v);
+        if (w < 0 || w >= INF) {
+            throw new IllegalArgumentException("Edge weight must be non-negative and below INF");
+        }
+        int i = indexOf(outTargets[u], outCount[u], v);
+        int oldWeight;
+        if (i < 0) {
+            oldWeight = INF;
+            appendOut(u, v, w);
+            appendIn(v, u, w);
+            edgeCount++;
+        } else {
+            oldWeight = outWeights[u][i];
+            if (oldWeight == w) return;
+            outWeights[u][i] = w;
+            inWeights[v][indexOf(inSources[v], inCount[v], u)] = w;
+        }
+        changed(u, v, oldWeight, w);
+    }
+
+    void insertEdge(int u, int v, int w) {
+        checkNodes(u, v);
+        if (indexOf(outTargets[u], outCount[u], v) >= 0) {
+            throw new IllegalArgumentException("Edge " + u + " -> " + v + " already exists");
+        }
+        setWeight(u, v, w);
+    }
+
+    // Returns false if there was no such edge
+    boolean deleteEdge(int u, int v) {
+        checkNodes(u, v);
+        int i = indexOf(outTargets[u], outCount[u], v);
+        if (i < 0) return false;
+        int oldWeight = outWeights[u][i];
+        int last = --outCount[u];
+        outTargets[u][i] = outTargets[u][last];
+        outWeights[u][i] = outWeights[u][last];
+        int j = indexOf(inSources[v], inCount[v], u);
+        last = --inCount[v];
+        inSources[v][j] = inSources[v][last];
+        inWeights[v][j] = inWeights[v][last];
+        edgeCount--;
+        changed(u, v, oldWeight, INF);
+        return true;
+    }
+
+    void addListener(EdgeListener listener) {
+        listeners.add(listener);
+    }
+
+    void removeListener(EdgeListener listener) {
+        listeners.remove(listener);
+    }
+
+    // Immutable CSR copy for the static solvers, shared until the next change
+    Graph toGraph() {
+        if (snapshot == null) {
+            Graph.Builder builder = new Graph.Builder(size, edgeCount);
+            for (int u = 0; u < size; u++) {
+                for (int i = 0; i < outCount[u]; i++) {
+                    builder.addEdge(u, outTargets[u][i], outWeights[u][i]);
+                }
+            }
+            snapshot = builder.build();
+        }
+        return snapshot;
+    }
+
+    private void changed(int u, int v, int oldWeight, int newWeight) {
+        version++;
+        snapshot = null;
+        for (EdgeListener listener : listeners) {
+            listener.edgeChanged(u, v, oldWeight, newWeight);
+        }
+    }
+
+    private void appendOut(int u, int v, int w) {
+        if (outCount[u] == outTargets[u].length) {
+            int capacity = Math.max(4, outCount[u] * 2);
+            outTargets[u] = Arrays.copyOf(outTargets[u], capacity);
+            outWeights[u] = Arrays.copyOf(outWeights[u], capacity);
+        }
+        outTargets[u][outCount[u]] = v;
+        outWeights[u][outCount[u]++] = w;
+    }
+
+    private void appendIn(int v, int u, int w) {
+        if (inCount[v] == inSources[v].length) {
+            int capacity = Math.max(4, inCount[v] * 2);
+            inSources[v] = Arrays.copyOf(inSources[v], capacity);
+            inWeights[v] = Arrays.copyOf(inWeights[v], capacity);
+        }
+        inSources[v][inCount[v]] = u;
+        inWeights[v][inCount[v]++] = w;
+    }
+
+    private static int indexOf(int[] nodes, int count, int node) {
+        for (int i = 0; i < count; i++) {
+            if (nodes[i] == node) return i;
+        }
+        return -1;
+    }
+
+    private void checkNodes(int u, int v) {
+        if (u < 0 || u >= size || v < 0 || v >= size) {
+            throw new IllegalArgumentException("Invalid edge " + u + " -> " + v);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// Single-source shortest paths kept up to date while a DynamicGraph changes, in the style of
+// Ramalingam and Reps. A cheaper edge runs Dijkstra only from the node it improves. A dearer or
+// deleted tree edge invalidates just the subtree below it in the path array: those nodes are
+// reset, re-seeded from their best in-edge outside the subtree, and settled again with
+// Dijkstra. Changes to non-tree edges that make them dearer cost O(1).
+public class DynamicShortestPaths implements DynamicGraph.EdgeListener {
+    final DynamicGraph graph;
+    final int source;
+    int[] distanceList;
+    int[] path;
+    int touchedCount;  // nodes whose distance was recomputed by the last repair
+    final int INF = Distances.INF;
+    private final IndexedMinHeap heap;
+    private final boolean[] affected;
+    private int[] subtree;
+
+    // Computes the tree from scratch and then follows the graph until close()
+    DynamicShortestPaths(DynamicGraph graph, int source) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        if (source < 0 || source >= graph.size()) {
+            throw new IllegalArgumentException("Invalid start node");
+        }
+        this.graph = graph;
+        this.source = source;
+        int n = graph.size();
+        distanceList = new int[n];
+        path = new int[n];
+        heap = new IndexedMinHeap(n);
+        affected = new boolean[n];
+        subtree = new int[16];
+        Arrays.fill(distanceList, INF);
+        Arrays.fill(path, -1);
+        distanceList[source] = 0;
+        path[source] = source;
+        heap.insertOrDecrease(source, 0);
+        touchedCount = propagate();
+        graph.addListener(this);
+    }
+
+    // Stops following the graph; the arrays keep the last repaired state
+    void close() {
+        graph.removeListener(this);
+    }
+
+    @Override
+    public void edgeChanged(int u, int v, int oldWeight, int newWeight) {
+        if (newWeight < oldWeight) {
+            decreased(u, v, newWeight);
+        } else if (path[v] == u && v != source) {
+            increased(v);
+        } else {
+            touchedCount = 0;
+        }
+    }
+
+    private void decreased(int u, int v, int w) {
+        touchedCount = 0;
+        if (distanceList[u] == INF) return;
+        long candidate = (long) distanceList[u] + w;
+        if (candidate >= distanceList[v]) return;
+        distanceList[v] = (int) candidate;
+        path[v] = u;
+        heap.insertOrDecrease(v, candidate);
+        touchedCount = propagate();
+    }
+
+    // The tree edge into v got dearer or disappeared
+    private void increased(int v) {
+        // Collect v's subtree: children of x are the out-neighbours whose predecessor is x
+        int count = 0;
+        subtree[count++] = v;
+        affected[v] = true;
+        for (int head = 0; head < count; head++) {
+            int x = subtree[head];
+            int[] targets = graph.outTargets[x];
+            for (int i = 0; i < graph.outCount[x]; i++) {
+                int child = targets[i];
+                if (path[child] == x && !affected[child] && child != source) {
+                    affected[child] = true;
+                    if (count == subtree.length) subtree = Arrays.copyOf(subtree, count * 2);
+                    subtree[count++] = child;
+                }
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            distanceList[subtree[i]] = INF;
+            path[subtree[i]] = -1;
+        }
+        // Best entry into each affected node from the unaffected part of the tree
+        for (int i = 0; i < count; i++) {
+            int x = subtree[i];
+            int[] sources = graph.inSources[x];
+            int[] weights = graph.inWeights[x];
+            long best = INF;
+            int parent = -1;
+            for (int j = 0; j < graph.inCount[x]; j++) {
+                int y = sources[j];
+                if (affected[y] || distanceList[y] == INF) continue;
+                long candidate = (long) distanceList[y] + weights[j];
+                if (candidate < best) {
+                    best = candidate;
+                    parent = y;
+                }
+            }
+            if (parent >= 0) {
+                distanceList[x] = (int) best;
+                path[x] = parent;
+                heap.insertOrDecrease(x, best);
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            affected[subtree[i]] = false;
+        }
+        propagate();
+        touchedCount = count;
+    }
+
+    // Dijkstra from whatever is queued; returns the number of nodes settled
+    private int propagate() {
+        int settled = 0;
+        while (!heap.isEmpty()) {
+            int x = heap.poll();
+            settled++;
+            int distance = distanceList[x];
+            int[] targets = graph.outTargets[x];
+            int[] weights = graph.outWeights[x];
+            for (int i = 0; i < graph.outCount[x]; i++) {
+                int y = targets[i];
+                long candidate = (long) distance + weights[i];
+                if (candidate < distanceList[y]) {
+                    distanceList[y] = (int) candidate;
+                    path[y] = x;
+                    heap.insertOrDecrease(y, candidate);
+                }
+            }
+        }
+        return settled;
+    }
+
+    ArrayList<Integer> getPath(int end) {
+        return Dijkstra.buildPath(distanceList, path, source, end);
+    }
+}
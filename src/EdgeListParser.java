@@ -0,0 +1,266 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+// Byte-level reader for the text edge-list format: "N M" followed by M "from to weight" lines.
+// Bytes come from positional FileChannel reads into a fixed buffer and integers are decoded in
+// place, so memory stays at one buffer per reader no matter how large the file is. stream()
+// hands every edge to an EdgeSink, read() feeds them straight into a Graph.Builder, and
+// readParallel() splits the edge lines into segments at line boundaries and decodes the
+// segments on a ForkJoinPool before appending them to the builder in file order.
+public class EdgeListParser {
+    interface EdgeSink {
+        default void header(int nodes, int edges) {}
+
+        void edge(int u, int v, int w);
+    }
+
+    int bufferSize = 1 << 20;
+    int parallelism = Runtime.getRuntime().availableProcessors();
+
+    void setBufferSize(int bufferSize) {
+        if (bufferSize < 64) {
+            throw new IllegalArgumentException("Buffer size must be at least 64 bytes");
+        }
+        this.bufferSize = bufferSize;
+    }
+
+    void setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.parallelism = parallelism;
+    }
+
+    // Reads the whole file on the calling thread, holding only the read buffer
+    void stream(Path file, EdgeSink sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Tokenizer tokens = new Tokenizer(channel, 0, channel.size(), bufferSize);
+            int nodes = tokens.nextInt();
+            int edges = tokens.nextInt();
+            if (nodes < 0 || edges < 0) {
+                throw new IOException("Node and edge counts cannot be negative");
+            }
+            sink.header(nodes, edges);
+            for (int i = 0; i < edges; i++) {
+                sink.edge(tokens.nextInt(), tokens.nextInt(), tokens.nextInt());
+            }
+            if (tokens.hasMore()) {
+                throw new IOException("More than " + edges + " edges in " + file);
+            }
+        }
+    }
+
+    Graph read(Path file) throws IOException {
+        BuilderSink sink = new BuilderSink();
+        stream(file, sink);
+        return sink.builder.build();
+    }
+
+    Graph readParallel(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            Tokenizer header = new Tokenizer(channel, 0, size, 64);
+            int nodes = header.nextInt();
+            int edges = header.nextInt();
+            if (nodes < 0 || edges < 0) {
+                throw new IOException("Node and edge counts cannot be negative");
+            }
+            long start = header.offset();
+
+            int segments = (int) Math.max(1, Math.min(parallelism * 4L, (size - start) / bufferSize + 1));
+            long[] bounds = new long[segments + 1];
+            bounds[0] = start;
+            for (int s = 1; s < segments; s++) {
+                bounds[s] = Math.max(bounds[s - 1], lineStartAfter(channel, start + (size - start) * s / segments));
+            }
+            bounds[segments] = size;
+
+            EdgeBuffer[] parsed = new EdgeBuffer[segments];
+            IOException[] failure = new IOException[1];
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                ParallelRange.forEach(pool, 0, segments, 1, (from, to) -> {
+                    for (int s = from; s < to; s++) {
+                        try {
+                            parsed[s] = parseSegment(channel, bounds[s], bounds[s + 1]);
+                        } catch (IOException e) {
+                            synchronized (failure) {
+                                failure[0] = e;
+                            }
+                        }
+                    }
+                });
+            } finally {
+                pool.shutdown();
+            }
+            if (failure[0] != null) throw failure[0];
+
+            long found = 0;
+            for (EdgeBuffer segment : parsed) {
+                found += segment.size;
+            }
+            if (found != edges) {
+                throw new IOException("Expected " + edges + " edges, found " + found + " in " + file);
+            }
+            Graph.Builder builder = new Graph.Builder(nodes, edges);
+            for (EdgeBuffer segment : parsed) {
+                for (int i = 0; i < segment.size; i++) {
+                    builder.addEdge(segment.from[i], segment.to[i], segment.weight[i]);
+                }
+            }
+            return builder.build();
+        }
+    }
+
+    private EdgeBuffer parseSegment(FileChannel channel, long from, long to) throws IOException {
+        Tokenizer tokens = new Tokenizer(channel, from, to, bufferSize);
+        EdgeBuffer segment = new EdgeBuffer();
+        while (tokens.hasMore()) {
+            segment.add(tokens.nextInt(), tokens.nextInt(), tokens.nextInt());
+        }
+        return segment;
+    }
+
+    // Offset of the first byte after the next newline at or after position, or the file size
+    private static long lineStartAfter(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long size = channel.size();
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') return position + i + 1;
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static class BuilderSink implements EdgeSink {
+        Graph.Builder builder;
+
+        @Override
+        public void header(int nodes, int edges) {
+            builder = new Graph.Builder(nodes, edges);
+        }
+
+        @Override
+        public void edge(int u, int v, int w) {
+            builder.addEdge(u, v, w);
+        }
+    }
+
+    // Edges of one segment in three flat arrays
+    private static class EdgeBuffer {
+        int[] from = new int[1024];
+        int[] to = new int[1024];
+        int[] weight = new int[1024];
+        int size;
+
+        void add(int u, int v, int w) {
+            if (size == from.length) {
+                from = Arrays.copyOf(from, size * 2);
+                to = Arrays.copyOf(to, size * 2);
+                weight = Arrays.copyOf(weight, size * 2);
+            }
+            from[size] = u;
+            to[size] = v;
+            weight[size] = w;
+            size++;
+        }
+    }
+
+    // Decodes whitespace-separated decimal ints from the byte range [start, end) of a channel.
+    // Positional reads leave the channel's own position alone, so segments can share a channel.
+    private static class Tokenizer {
+        // Longest int is "-2147483648"; keeping this many bytes buffered means no number is split
+        private static final int MAX_TOKEN = 11;
+
+        private final FileChannel channel;
+        private final long end;
+        private final byte[] bytes;
+        private final ByteBuffer buffer;
+        private long filePosition;  // file offset of bytes[limit]
+        private int position;
+        private int limit;
+
+        Tokenizer(FileChannel channel, long start, long end, int bufferSize) {
+            this.channel = channel;
+            this.end = end;
+            this.bytes = new byte[bufferSize];
+            this.buffer = ByteBuffer.wrap(bytes);
+            this.filePosition = start;
+        }
+
+        // File offset of the next unread byte
+        long offset() {
+            return filePosition - (limit - position);
+        }
+
+        // Moves the unread tail to the front and tops the buffer up from the file
+        private boolean fill() throws IOException {
+            int remaining = limit - position;
+            System.arraycopy(bytes, position, bytes, 0, remaining);
+            position = 0;
+            limit = remaining;
+            while (limit < bytes.length && filePosition < end) {
+                buffer.limit((int) Math.min(bytes.length, limit + (end - filePosition)));
+                buffer.position(limit);
+                int read = channel.read(buffer, filePosition);
+                if (read < 0) break;
+                limit += read;
+                filePosition += read;
+            }
+            return limit > remaining;
+        }
+
+        private boolean skipSeparators() throws IOException {
+            while (true) {
+                while (position < limit) {
+                    if (bytes[position] > ' ') return true;
+                    position++;
+                }
+                if (!fill()) return false;
+            }
+        }
+
+        boolean hasMore() throws IOException {
+            return skipSeparators();
+        }
+
+        int nextInt() throws IOException {
+            if (!skipSeparators()) {
+                throw new IOException("Unexpected end of input at byte " + offset());
+            }
+            if (limit - position <= MAX_TOKEN && filePosition < end) {
+                fill();
+            }
+            long start = offset();
+            int i = position;
+            boolean negative = bytes[i] == '-';
+            if (negative) i++;
+            long value = 0;
+            int digits = 0;
+            while (i < limit && bytes[i] >= '0' && bytes[i] <= '9') {
+                value = value * 10 + (bytes[i] - '0');
+                i++;
+                if (++digits > 10) break;
+            }
+            if (digits == 0 || digits > 10 || (i < limit && bytes[i] > ' ')) {
+                throw new IOException("Expected an integer at byte " + start);
+            }
+            if (negative) value = -value;
+            if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                throw new IOException("Integer out of range at byte " + start);
+            }
+            position = i;
+            return (int) value;
+        }
+    }
+}
@@ -1,17 +1,33 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
 
 public class FloydWarshall {
-    ArrayList<ArrayList<int[]>> adjacencyList;
+    // SCALAR is the textbook triple loop over distanceMatrix, BLOCKED runs BlockedFloydWarshall
+    // on a flat row-major copy of the matrices, and VECTOR is BLOCKED with the Vector API row
+    // kernel when it is available at runtime (falling back to the scalar row kernel otherwise)
+    enum Kernel { SCALAR, BLOCKED, VECTOR }
+
+    Graph graph;
+    Kernel kernel = Kernel.SCALAR;
+    int tileSize = 64;
+    int parallelism = 1;  // worker threads; 1 keeps the whole run on the calling thread
     int[][] distanceMatrix;
     int[][] nextNode;
-    final int INF = Integer.MAX_VALUE / 2;
+    final int INF = Distances.INF;
     int size;
+    TraceListener listener;  // null unless tracing was requested
+    SolverMetrics metrics;  // null unless metrics were requested
+    int kIterations;  // main pivots plus negative-cycle marking pivots of the last run
 
     FloydWarshall(ArrayList<ArrayList<int[]>> adjacencyList) {
-        this.adjacencyList = new ArrayList<>(adjacencyList);
-        this.size = adjacencyList.size();
+        this(Graph.fromAdjacencyList(adjacencyList));
+    }
+
+    FloydWarshall(Graph graph) {
+        this.graph = graph;
+        this.size = graph.size();
         this.distanceMatrix = new int[size][size];
         this.nextNode = new int[size][size];
 
@@ -21,54 +37,217 @@ public class FloydWarshall {
             Arrays.fill(nextNode[i], -1);
             distanceMatrix[i][i] = 0;
 
-            for (int[] edge : adjacencyList.get(i)) {
-                int j = edge[0];
-                int weight = edge[1];
-                distanceMatrix[i][j] = weight;
-                nextNode[i][j] = j;
+            // Parallel edges keep the lightest one, and only a negative self-loop beats the 0 diagonal
+            for (int e = graph.offsets[i]; e < graph.offsets[i + 1]; e++) {
+                int j = graph.targets[e];
+                int weight = graph.weights[e];
+                if (weight < distanceMatrix[i][j]) {
+                    distanceMatrix[i][j] = weight;
+                    nextNode[i][j] = j;
+                }
             }
         }
     }
 
     void floydWarshall() {
-        System.out.println("Initial distance matrix:");
-        printDistanceMatrix();
+        if (listener != null) listener.floydWarshallStep(-1, distanceMatrix);
+        long began = metrics != null ? System.nanoTime() : 0;
+        kIterations = 0;
 
-        for (int k = 0; k < size; k++) {
-            for (int i = 0; i < size; i++) {
-                for (int j = 0; j < size; j++) {
-                    if (distanceMatrix[i][k] + distanceMatrix[k][j] < distanceMatrix[i][j]) {
-                        distanceMatrix[i][j] = distanceMatrix[i][k] + distanceMatrix[k][j];
-                        nextNode[i][j] = nextNode[i][k];
-                    }
-                }
+        ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        try {
+            if (kernel != Kernel.SCALAR) {
+                runBlocked(pool);
+            } else {
+                runScalar(pool);
             }
+        } finally {
+            if (pool != null) pool.shutdown();
+        }
+        if (metrics != null) metrics.floydWarshallRun(System.nanoTime() - began, kIterations);
 
+        // Check for negative cycles
+        if (hasNegativeCycle()) {
+            if (listener != null) listener.negativeCycleDetected();
+            throw new IllegalStateException("Graph contains a negative weight cycle");
+        }
+    }
 
-            System.out.println("\nAfter considering intermediate node " + k + ":");
-            printDistanceMatrix();
+    private void runScalar(ForkJoinPool pool) {
+        for (int k = 0; k < size; k++) {
+            relaxAll(k, pool);
+            if (listener != null) listener.floydWarshallStep(k, distanceMatrix);
+        }
+
+        if (markNegativeCycles(pool) > 0 && listener != null) {
+            listener.floydWarshallNegativeCyclesMarked(distanceMatrix);
         }
+    }
 
+    // Same rule as BlockedFloydWarshall.markNegativeCycles: (i, j) becomes -INF, with no next
+    // node, when some k with a negative diagonal is reachable from i and reaches j
+    private int markNegativeCycles(ForkJoinPool pool) {
+        int[] negative = new int[size];
+        int count = 0;
         for (int k = 0; k < size; k++) {
-            for (int i = 0; i < size; i++) {
-                for (int j = 0; j < size; j++) {
-                    if (distanceMatrix[i][k] + distanceMatrix[k][j] < distanceMatrix[i][j]) {
-                        distanceMatrix[i][j] = -INF;
-                        nextNode[i][j] = nextNode[i][k];
+            if (distanceMatrix[k][k] < 0) negative[count++] = k;
+        }
+        if (count == 0) return 0;
+        kIterations += count;
+
+        int pivots = count;
+        ParallelRange.Body markRows = (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int[] rowI = distanceMatrix[i];
+                int[] nextI = nextNode[i];
+                for (int p = 0; p < pivots; p++) {
+                    int k = negative[p];
+                    if (rowI[k] == INF) continue;
+                    int[] rowK = distanceMatrix[k];
+                    for (int j = 0; j < size; j++) {
+                        if (rowK[j] != INF) {
+                            rowI[j] = -INF;
+                            nextI[j] = -1;
+                        }
                     }
                 }
             }
+        };
+        if (pool == null) {
+            markRows.run(0, size);
+        } else {
+            ParallelRange.forEach(pool, 0, size, ParallelRange.grainFor(pool, size), markRows);
+        }
+        return count;
+    }
+
+    // Row i only reads itself and row k, so rows are independent once row k is fixed. Row k
+    // changes during pivot k only when distanceMatrix[k][k] < 0; the sequential loop then shows
+    // the old row k to rows i < k, so the parallel run hands those rows a snapshot.
+    private void relaxAll(int k, ForkJoinPool pool) {
+        int[] rowK = distanceMatrix[k];
+        kIterations++;
+        if (pool == null) {
+            for (int i = 0; i < size; i++) {
+                relaxRow(i, k, rowK);
+            }
+            return;
+        }
+        int[] before = rowK;
+        if (rowK[k] < 0) {
+            before = rowK.clone();
+            relaxRow(k, k, rowK);
+        }
+        int[] earlierRows = before;
+        ParallelRange.forEach(pool, 0, size, ParallelRange.grainFor(pool, size), (from, to) -> {
+            for (int i = from; i < to; i++) {
+                if (i == k && earlierRows != rowK) continue;
+                relaxRow(i, k, i < k ? earlierRows : rowK);
+            }
+        });
+    }
 
+    private void relaxRow(int i, int k, int[] rowK) {
+        int[] rowI = distanceMatrix[i];
+        // Unreachable pairs must stay INF instead of drifting by negative weights
+        if (rowI[k] == INF) return;
+        int dik = rowI[k];
+        int[] nextI = nextNode[i];
+        for (int j = 0; j < size; j++) {
+            if (rowK[j] == INF) continue;
+            // Clamped so sums around a negative cycle cannot run past -INF and overflow
+            int candidate = Math.max(dik + rowK[j], -INF);
+            if (candidate < rowI[j]) {
+                rowI[j] = candidate;
+                nextI[j] = nextI[k];
+            }
         }
-        System.out.println("\nAfter considering negative cycles :");
-        printDistanceMatrix();
+    }
 
+    // The blocked rounds track via instead of next (see BlockedFloydWarshall), so nextNode is
+    // only rebuilt once the distances are final
+    private void runBlocked(ForkJoinPool pool) {
+        int[] dist = new int[size * size];
+        int[] via = new int[size * size];
+        Arrays.fill(via, -1);
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(distanceMatrix[i], 0, dist, i * size, size);
+        }
 
-        // Check for negative cycles
-        if (hasNegativeCycle()) {
-            System.out.println("Warning: Graph contains a negative weight cycle");
+        BlockedFloydWarshall blocked = new BlockedFloydWarshall(dist, via, size, tileSize, pool,
+                kernel == Kernel.VECTOR ? RowKernel.selected() : RowKernel.SCALAR);
+        for (int kb = 0; kb < blocked.blockCount(); kb++) {
+            blocked.round(kb);
+            kIterations = Math.min(size, (kb + 1) * tileSize);
+            // Tracing sees the distances once per block of pivots rather than once per pivot
+            if (listener != null) {
+                copyDistances(dist);
+                listener.floydWarshallStep(kIterations - 1, distanceMatrix);
+            }
+        }
+        int marked = blocked.markNegativeCycles();
+        kIterations += marked;
+        blocked.finishNext();
+        copyDistances(dist);
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(via, i * size, nextNode[i], 0, size);
+        }
+        if (marked > 0 && listener != null) listener.floydWarshallNegativeCyclesMarked(distanceMatrix);
+    }
+
+    private void copyDistances(int[] dist) {
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(dist, i * size, distanceMatrix[i], 0, size);
+        }
+    }
+
+    void setKernel(Kernel kernel) {
+        this.kernel = kernel;
+    }
+
+    void setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.parallelism = parallelism;
+    }
+
+    void setTileSize(int tileSize) {
+        if (tileSize <= 0) {
+            throw new IllegalArgumentException("Tile size must be positive");
+        }
+        this.tileSize = tileSize;
+    }
+
+    // Lowers u -> v to weight (adding the edge if the matrix had none) after floydWarshall() has
+    // run, in O(V^2): a pair can only improve by routing i -> u -> v -> j. Column u and row v
+    // cannot change unless the new edge closes a negative cycle, which is rejected before the
+    // matrix is touched. The graph field is not rewritten.
+    void decreaseEdge(int u, int v, int weight) {
+        if (u < 0 || u >= size || v < 0 || v >= size) {
+            throw new IllegalArgumentException("Invalid edge " + u + " -> " + v);
+        }
+        if (weight >= distanceMatrix[u][v]) return;
+        if (distanceMatrix[v][u] != INF && (long) weight + distanceMatrix[v][u] < 0) {
             throw new IllegalStateException("Graph contains a negative weight cycle");
         }
+        int[] rowV = distanceMatrix[v];
+        for (int i = 0; i < size; i++) {
+            int diu = distanceMatrix[i][u];
+            if (diu == INF) continue;
+            long throughEdge = (long) diu + weight;
+            int[] rowI = distanceMatrix[i];
+            int[] nextI = nextNode[i];
+            int first = i == u ? v : nextI[u];
+            for (int j = 0; j < size; j++) {
+                if (rowV[j] == INF) continue;
+                long candidate = throughEdge + rowV[j];
+                if (candidate < rowI[j]) {
+                    rowI[j] = (int) candidate;
+                    nextI[j] = first;
+                }
+            }
+        }
     }
 
     private boolean hasNegativeCycle() {
@@ -83,8 +262,8 @@ public class FloydWarshall {
     ArrayList<Integer> getPath(int start, int end) {
         ArrayList<Integer> path = new ArrayList<>();
 
-        if (distanceMatrix[start][end] == INF) {
-            return path;  // No path exists
+        if (distanceMatrix[start][end] == INF || distanceMatrix[start][end] == -INF) {
+            return path;  // No path exists, or no shortest one through a negative cycle
         }
 
         int at = start;
@@ -98,21 +277,12 @@ public class FloydWarshall {
         return path;
     }
 
-    private void printDistanceMatrix() {
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                if (distanceMatrix[i][j] == INF) {
-                    System.out.print("INF\t");
-                }
-                else if (distanceMatrix[i][j] == -INF) {
-                    System.out.print("-INF\t");
-                }
-                else {
-                    System.out.print(distanceMatrix[i][j] + "\t");
-                }
-            }
-            System.out.println();
-        }
+    void setTraceListener(TraceListener listener) {
+        this.listener = listener;
+    }
+
+    void setMetrics(SolverMetrics metrics) {
+        this.metrics = metrics;
     }
 
     public static void main(String[] args) {
@@ -121,18 +291,16 @@ public class FloydWarshall {
         n = sc.nextInt();
         m = sc.nextInt();
 
-        ArrayList<ArrayList<int[]>> adjacencyList = new ArrayList<>();
-        for (int i = 0; i < n; i++) {
-            adjacencyList.add(new ArrayList<>());
-        }
+        Graph.Builder builder = new Graph.Builder(n, m);
         for (int i = 0; i < m; i++) {
             int u = sc.nextInt();
             int v = sc.nextInt();
             int weight = sc.nextInt();
 
-            adjacencyList.get(u).add(new int[]{v, weight});
+            builder.addEdge(u, v, weight);
         }
-        FloydWarshall fw = new FloydWarshall(adjacencyList);
+        FloydWarshall fw = new FloydWarshall(builder.build());
+        fw.setTraceListener(new ConsoleTraceListener());
         fw.floydWarshall();
 
         for (int i = 0; i < n; i++) {
@@ -0,0 +1,195 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// Immutable compressed sparse row (CSR) graph shared by all solvers.
+// The out-edges of node u are the slots offsets[u] .. offsets[u + 1] - 1 of targets/weights,
+// kept in the order they were added so path tie-breaking matches the adjacency list input.
+public class Graph {
+    final int[] offsets;
+    final int[] targets;
+    final int[] weights;
+    final int size;
+    final boolean negativeWeights;
+    private volatile Graph reverse;
+
+    private Graph(int size, int[] offsets, int[] targets, int[] weights, boolean negativeWeights) {
+        this.size = size;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.negativeWeights = negativeWeights;
+    }
+
+    static Graph fromAdjacencyList(ArrayList<ArrayList<int[]>> adjacencyList) {
+        if (adjacencyList == null) {
+            throw new IllegalArgumentException("Adjacency list cannot be null");
+        }
+        Builder builder = new Builder(adjacencyList.size());
+        for (int u = 0; u < adjacencyList.size(); u++) {
+            for (int[] edge : adjacencyList.get(u)) {
+                builder.addEdge(u, edge[0], edge[1]);
+            }
+        }
+        return builder.build();
+    }
+
+    int size() {
+        return size;
+    }
+
+    int edgeCount() {
+        return targets.length;
+    }
+
+    int degree(int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    // Recorded once at build time so solvers that need non-negative weights can reject the graph up front
+    boolean hasNegativeWeights() {
+        return negativeWeights;
+    }
+
+    // The transposed graph (v -> u for every u -> v), built on first use and then shared.
+    // In-edges of each node keep the order of their source nodes.
+    Graph reverse() {
+        Graph result = reverse;
+        if (result == null) {
+            int[] reverseOffsets = new int[size + 1];
+            for (int e = 0; e < targets.length; e++) {
+                reverseOffsets[targets[e] + 1]++;
+            }
+            for (int v = 0; v < size; v++) {
+                reverseOffsets[v + 1] += reverseOffsets[v];
+            }
+            int[] reverseTargets = new int[targets.length];
+            int[] reverseWeights = new int[targets.length];
+            int[] cursor = Arrays.copyOf(reverseOffsets, size);
+            for (int u = 0; u < size; u++) {
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    int slot = cursor[targets[e]]++;
+                    reverseTargets[slot] = u;
+                    reverseWeights[slot] = weights[e];
+                }
+            }
+            result = new Graph(size, reverseOffsets, reverseTargets, reverseWeights, negativeWeights);
+            result.reverse = this;
+            reverse = result;
+        }
+        return result;
+    }
+
+    // Wraps existing CSR arrays without copying them, after checking that they describe a graph
+    static Graph fromCsr(int size, int[] offsets, int[] targets, int[] weights) {
+        if (size < 0 || offsets.length != size + 1 || targets.length != weights.length
+                || offsets[0] != 0 || offsets[size] != targets.length) {
+            throw new IllegalArgumentException("Inconsistent CSR arrays");
+        }
+        for (int u = 0; u < size; u++) {
+            if (offsets[u] > offsets[u + 1]) {
+                throw new IllegalArgumentException("Offsets must not decrease");
+            }
+        }
+        boolean negative = false;
+        for (int e = 0; e < targets.length; e++) {
+            if (targets[e] < 0 || targets[e] >= size) {
+                throw new IllegalArgumentException("Invalid edge target " + targets[e]);
+            }
+            if (weights[e] < 0) negative = true;
+        }
+        return new Graph(size, offsets, targets, weights, negative);
+    }
+
+    // Same nodes and edges with new weights, indexed like the weights array; the offsets and
+    // targets arrays are shared rather than copied
+    Graph withWeights(int[] newWeights) {
+        if (newWeights == null || newWeights.length != targets.length) {
+            throw new IllegalArgumentException("Expected one weight per edge");
+        }
+        boolean negative = false;
+        for (int weight : newWeights) {
+            if (weight < 0) {
+                negative = true;
+                break;
+            }
+        }
+        return new Graph(size, offsets, targets, newWeights, negative);
+    }
+
+    // Collects edges in three flat arrays and counting-sorts them by source on build().
+    static class Builder {
+        private final int size;
+        private int[] from;
+        private int[] to;
+        private int[] weight;
+        private int edgeCount;
+        private boolean negativeWeights;
+
+        Builder(int size) {
+            this(size, 16);
+        }
+
+        Builder(int size, int expectedEdges) {
+            if (size < 0) {
+                throw new IllegalArgumentException("Number of nodes cannot be negative");
+            }
+            this.size = size;
+            int capacity = Math.max(expectedEdges, 1);
+            from = new int[capacity];
+            to = new int[capacity];
+            weight = new int[capacity];
+        }
+
+        Builder addEdge(int u, int v, int w) {
+            if (from == null) {
+                throw new IllegalStateException("Builder has already been built");
+            }
+            if (u < 0 || u >= size || v < 0 || v >= size) {
+                throw new IllegalArgumentException("Invalid edge " + u + " -> " + v);
+            }
+            if (edgeCount == from.length) {
+                int capacity = (int) Math.min(Integer.MAX_VALUE - 8, (long) from.length * 2);
+                if (capacity == edgeCount) {
+                    throw new IllegalStateException("Too many edges");
+                }
+                from = Arrays.copyOf(from, capacity);
+                to = Arrays.copyOf(to, capacity);
+                weight = Arrays.copyOf(weight, capacity);
+            }
+            from[edgeCount] = u;
+            to[edgeCount] = v;
+            weight[edgeCount] = w;
+            edgeCount++;
+            if (w < 0) negativeWeights = true;
+            return this;
+        }
+
+        // Single use: the edge buffers are released so a 10^8-edge build does not keep two copies alive
+        Graph build() {
+            if (from == null) {
+                throw new IllegalStateException("Builder has already been built");
+            }
+            int[] offsets = new int[size + 1];
+            for (int e = 0; e < edgeCount; e++) {
+                offsets[from[e] + 1]++;
+            }
+            for (int u = 0; u < size; u++) {
+                offsets[u + 1] += offsets[u];
+            }
+
+            // Stable scatter so each node keeps its edges in insertion order
+            int[] targets = new int[edgeCount];
+            int[] weights = new int[edgeCount];
+            int[] cursor = Arrays.copyOf(offsets, size);
+            for (int e = 0; e < edgeCount; e++) {
+                int slot = cursor[from[e]]++;
+                targets[slot] = to[e];
+                weights[slot] = weight[e];
+            }
+            from = null;
+            to = null;
+            weight = null;
+            return new Graph(size, offsets, targets, weights, negativeWeights);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+// Binary graph file: the CSR arrays of a Graph behind a fixed header, all little-endian.
+//
+//   int   magic "CSRG"
+//   int   format version
+//   int   flags (bit 0: some weight is negative)
+//   int   node count N
+//   long  edge count M
+//   long  CRC32 of everything after the header
+//   int[N + 1] offsets, int[M] targets, int[M] weights
+//
+// Both directions go through memory mappings in chunks of at most 1 GB, so a file is written
+// and read with one bulk copy per chunk and nothing is parsed.
+public class GraphFile {
+    static final int MAGIC = 0x43535247;  // "CSRG"
+    static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int CHUNK_INTS = 1 << 28;
+    private static final int FLAG_NEGATIVE_WEIGHTS = 1;
+
+    static void write(Graph graph, Path file) throws IOException {
+        long payload = 4L * (graph.size() + 1 + 2L * graph.edgeCount());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            CRC32 crc = new CRC32();
+            long position = HEADER_BYTES;
+            position = transfer(channel, FileChannel.MapMode.READ_WRITE, position, graph.offsets, crc);
+            position = transfer(channel, FileChannel.MapMode.READ_WRITE, position, graph.targets, crc);
+            transfer(channel, FileChannel.MapMode.READ_WRITE, position, graph.weights, crc);
+
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(0, MAGIC);
+            header.putInt(4, VERSION);
+            header.putInt(8, graph.hasNegativeWeights() ? FLAG_NEGATIVE_WEIGHTS : 0);
+            header.putInt(12, graph.size());
+            header.putLong(16, graph.edgeCount());
+            header.putLong(24, crc.getValue());
+            header.force();
+            if (channel.size() != HEADER_BYTES + payload) {
+                throw new IOException("Unexpected graph file size " + channel.size());
+            }
+        }
+    }
+
+    // Maps the file, checks header and checksum, and hands the arrays to the Graph as they are
+    static Graph read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("Not a graph file: " + file);
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("Not a graph file: " + file);
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException("Unsupported graph file version " + header.getInt(4));
+            }
+            int size = header.getInt(12);
+            long edges = header.getLong(16);
+            if (size < 0 || edges < 0 || edges > Integer.MAX_VALUE - 8) {
+                throw new IOException("Graph file header is corrupt: " + file);
+            }
+            if (channel.size() != HEADER_BYTES + 4L * (size + 1 + 2 * edges)) {
+                throw new IOException("Graph file is truncated: " + file);
+            }
+
+            CRC32 crc = new CRC32();
+            int[] offsets = new int[size + 1];
+            int[] targets = new int[(int) edges];
+            int[] weights = new int[(int) edges];
+            long position = HEADER_BYTES;
+            position = transfer(channel, FileChannel.MapMode.READ_ONLY, position, offsets, crc);
+            position = transfer(channel, FileChannel.MapMode.READ_ONLY, position, targets, crc);
+            transfer(channel, FileChannel.MapMode.READ_ONLY, position, weights, crc);
+            if (crc.getValue() != header.getLong(24)) {
+                throw new IOException("Graph file checksum mismatch: " + file);
+            }
+            try {
+                return Graph.fromCsr(size, offsets, targets, weights);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Graph file is corrupt: " + file, e);
+            }
+        }
+    }
+
+    // Copies values into (READ_WRITE) or out of (READ_ONLY) the file at position, adding the bytes
+    // to the checksum; returns the position after the array
+    private static long transfer(FileChannel channel, FileChannel.MapMode mode, long position,
+                                 int[] values, CRC32 crc) throws IOException {
+        for (int offset = 0; offset < values.length; offset += CHUNK_INTS) {
+            int length = Math.min(CHUNK_INTS, values.length - offset);
+            MappedByteBuffer mapping = channel.map(mode, position, 4L * length);
+            mapping.order(ByteOrder.LITTLE_ENDIAN);
+            IntBuffer ints = mapping.asIntBuffer();
+            if (mode == FileChannel.MapMode.READ_WRITE) {
+                ints.put(values, offset, length);
+            } else {
+                ints.get(values, offset, length);
+            }
+            crc.update(mapping);
+            position += 4L * length;
+        }
+        return position;
+    }
+
+    // Reads the "N M then M lines of u v w" text format used by Main and FloydWarshall.main
+    static Graph readText(Path file) throws IOException {
+        return new EdgeListParser().read(file);
+    }
+
+    static void convertText(Path text, Path binary) throws IOException {
+        write(readText(text), binary);
+    }
+
+    // java GraphFile input.txt output.csrg
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Usage: java GraphFile <text graph> <binary graph>");
+            return;
+        }
+        convertText(Path.of(args[0]), Path.of(args[1]));
+    }
+}
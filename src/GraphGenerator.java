@@ -0,0 +1,93 @@
+import java.util.Random;
+
+// Seeded synthetic graphs for tests and benchmarks. Every family produces non-negative integer
+// weights in [1, maxWeight], so all solvers accept the result; the same seed always gives the
+// same graph.
+public class GraphGenerator {
+    enum Family { RANDOM_SPARSE, GRID, SCALE_FREE, DENSE }
+
+    static final int DEFAULT_MAX_WEIGHT = 1000;
+
+    // About n nodes of the given family: sparse families get 4-8 edges per node, DENSE gets
+    // half of all possible edges, and GRID rounds n down to a square
+    static Graph generate(Family family, int n, long seed) {
+        switch (family) {
+            case RANDOM_SPARSE:
+                return randomSparse(n, 8, DEFAULT_MAX_WEIGHT, seed);
+            case GRID:
+                return grid((int) Math.sqrt(n), DEFAULT_MAX_WEIGHT, seed);
+            case SCALE_FREE:
+                return scaleFree(n, 3, DEFAULT_MAX_WEIGHT, seed);
+            case DENSE:
+                return dense(n, 0.5, DEFAULT_MAX_WEIGHT, seed);
+            default:
+                throw new IllegalArgumentException("Unknown family " + family);
+        }
+    }
+
+    // Uniformly random directed edges, degree edges per node on average
+    static Graph randomSparse(int n, int degree, int maxWeight, long seed) {
+        Random random = new Random(seed);
+        long edges = (long) n * degree;
+        Graph.Builder builder = new Graph.Builder(n, (int) Math.min(Integer.MAX_VALUE - 8, edges));
+        for (long e = 0; e < edges; e++) {
+            builder.addEdge(random.nextInt(n), random.nextInt(n), 1 + random.nextInt(maxWeight));
+        }
+        return builder.build();
+    }
+
+    // side x side lattice with edges in both directions between neighbours, a road-network stand-in
+    static Graph grid(int side, int maxWeight, long seed) {
+        Random random = new Random(seed);
+        int n = side * side;
+        Graph.Builder builder = new Graph.Builder(n, 4 * n);
+        for (int row = 0; row < side; row++) {
+            for (int column = 0; column < side; column++) {
+                int v = row * side + column;
+                if (column + 1 < side) {
+                    int weight = 1 + random.nextInt(maxWeight);
+                    builder.addEdge(v, v + 1, weight).addEdge(v + 1, v, weight);
+                }
+                if (row + 1 < side) {
+                    int weight = 1 + random.nextInt(maxWeight);
+                    builder.addEdge(v, v + side, weight).addEdge(v + side, v, weight);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    // Barabasi-Albert preferential attachment: each new node links to perNode earlier nodes picked
+    // in proportion to their degree, in both directions, which gives a few very large hubs
+    static Graph scaleFree(int n, int perNode, int maxWeight, long seed) {
+        Random random = new Random(seed);
+        Graph.Builder builder = new Graph.Builder(n, 2 * n * perNode);
+        // Every edge end is listed once, so a uniform pick from it is a degree-weighted pick
+        int[] ends = new int[Math.max(2, 2 * n * perNode)];
+        int endCount = 0;
+        for (int v = 1; v < n; v++) {
+            for (int i = 0; i < perNode; i++) {
+                int u = endCount == 0 ? 0 : ends[random.nextInt(endCount)];
+                int weight = 1 + random.nextInt(maxWeight);
+                builder.addEdge(u, v, weight).addEdge(v, u, weight);
+                ends[endCount++] = u;
+                ends[endCount++] = v;
+            }
+        }
+        return builder.build();
+    }
+
+    // Each ordered pair (u, v), u != v, is an edge with the given probability
+    static Graph dense(int n, double density, int maxWeight, long seed) {
+        Random random = new Random(seed);
+        Graph.Builder builder = new Graph.Builder(n, (int) Math.min(Integer.MAX_VALUE - 8, (long) (n * (double) n * density)));
+        for (int u = 0; u < n; u++) {
+            for (int v = 0; v < n; v++) {
+                if (u != v && random.nextDouble() < density) {
+                    builder.addEdge(u, v, 1 + random.nextInt(maxWeight));
+                }
+            }
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,33 @@
+// Lower bound on the remaining distance from node to target for Dijkstra.aStar. It must never
+// overestimate and should be consistent (h(u) <= w(u, v) + h(v)) so settled nodes stay final.
+public interface Heuristic {
+    int estimate(int node, int target);
+
+    // Falls back to plain Dijkstra
+    Heuristic ZERO = (node, target) -> 0;
+
+    // Straight-line distance between planar coordinates, scaled into edge-weight units. Edge
+    // weights must be at least scale times the length of the segment they cover.
+    static Heuristic euclidean(double[] x, double[] y, double scale) {
+        return (node, target) -> {
+            double dx = x[node] - x[target];
+            double dy = y[node] - y[target];
+            return (int) Math.floor(Math.sqrt(dx * dx + dy * dy) * scale);
+        };
+    }
+
+    // Great-circle distance between latitude/longitude degrees, in meters times unitsPerMeter
+    static Heuristic haversine(double[] latitude, double[] longitude, double unitsPerMeter) {
+        final double earthRadius = 6_371_000.0;
+        return (node, target) -> {
+            double lat1 = Math.toRadians(latitude[node]);
+            double lat2 = Math.toRadians(latitude[target]);
+            double dLat = lat2 - lat1;
+            double dLon = Math.toRadians(longitude[target] - longitude[node]);
+            double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                    + Math.cos(lat1) * Math.cos(lat2) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+            double meters = 2 * earthRadius * Math.asin(Math.min(1.0, Math.sqrt(a)));
+            return (int) Math.floor(meters * unitsPerMeter);
+        };
+    }
+}
@@ -0,0 +1,124 @@
+import java.util.Arrays;
+
+// Allocation-free indexed 4-ary min-heap over node ids 0 .. capacity - 1 with long keys.
+// position[node] is the node's slot in the heap or -1, which gives O(log n) decrease-key
+// without leaving stale entries behind.
+public class IndexedMinHeap {
+    private static final int ARITY = 4;
+
+    private final int[] nodes;
+    private final long[] keys;
+    private final int[] position;
+    private int size;
+
+    IndexedMinHeap(int capacity) {
+        nodes = new int[capacity];
+        keys = new long[capacity];
+        position = new int[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(int node) {
+        return position[node] >= 0;
+    }
+
+    long keyOf(int node) {
+        return keys[position[node]];
+    }
+
+    int peek() {
+        if (size == 0) {
+            throw new IllegalStateException("Heap is empty");
+        }
+        return nodes[0];
+    }
+
+    long peekKey() {
+        if (size == 0) {
+            throw new IllegalStateException("Heap is empty");
+        }
+        return keys[0];
+    }
+
+    // Inserts the node, or lowers its key if it is already queued with a larger one.
+    // Returns false if the node is queued with a key that is not larger.
+    boolean insertOrDecrease(int node, long key) {
+        int slot = position[node];
+        if (slot < 0) {
+            slot = size++;
+            siftUp(slot, node, key);
+            return true;
+        }
+        if (key < keys[slot]) {
+            siftUp(slot, node, key);
+            return true;
+        }
+        return false;
+    }
+
+    int poll() {
+        if (size == 0) {
+            throw new IllegalStateException("Heap is empty");
+        }
+        int top = nodes[0];
+        position[top] = -1;
+        size--;
+        if (size > 0) {
+            siftDown(0, nodes[size], keys[size]);
+        }
+        return top;
+    }
+
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            position[nodes[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int slot, int node, long key) {
+        while (slot > 0) {
+            int parent = (slot - 1) / ARITY;
+            if (keys[parent] <= key) break;
+            move(parent, slot);
+            slot = parent;
+        }
+        place(slot, node, key);
+    }
+
+    private void siftDown(int slot, int node, long key) {
+        while (true) {
+            int first = slot * ARITY + 1;
+            if (first >= size) break;
+            int last = Math.min(first + ARITY, size);
+            int best = first;
+            for (int child = first + 1; child < last; child++) {
+                if (keys[child] < keys[best]) best = child;
+            }
+            if (keys[best] >= key) break;
+            move(best, slot);
+            slot = best;
+        }
+        place(slot, node, key);
+    }
+
+    private void move(int from, int to) {
+        nodes[to] = nodes[from];
+        keys[to] = keys[from];
+        position[nodes[to]] = to;
+    }
+
+    private void place(int slot, int node, long key) {
+        nodes[slot] = node;
+        keys[slot] = key;
+        position[node] = slot;
+    }
+}
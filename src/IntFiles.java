@@ -0,0 +1,46 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+// Reads and writes int arrays as little-endian bytes through a FileChannel, a bounded chunk at
+// a time so large tables never need a second full-size copy in memory.
+public class IntFiles {
+    private static final int CHUNK = 1 << 20;  // ints per buffered read or write
+
+    static void write(FileChannel channel, int[] values) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(4 * Math.min(CHUNK, Math.max(values.length, 1)))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        for (int offset = 0; offset < values.length; offset += CHUNK) {
+            int length = Math.min(CHUNK, values.length - offset);
+            buffer.clear();
+            buffer.asIntBuffer().put(values, offset, length);
+            buffer.limit(length * 4);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    static int[] read(FileChannel channel, int count) throws IOException {
+        if (count < 0) {
+            throw new IOException("Negative array length " + count);
+        }
+        int[] values = new int[count];
+        ByteBuffer buffer = ByteBuffer.allocateDirect(4 * Math.min(CHUNK, Math.max(count, 1)))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        for (int offset = 0; offset < count; offset += CHUNK) {
+            int length = Math.min(CHUNK, count - offset);
+            buffer.clear();
+            buffer.limit(length * 4);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("File is truncated");
+                }
+            }
+            buffer.flip();
+            buffer.asIntBuffer().get(values, offset, length);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,115 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+// All-pairs shortest paths for sparse graphs that may have negative edges (Johnson's algorithm).
+// SPFA Bellman-Ford from a virtual source joined to every node by 0-weight edges gives each node
+// a potential h with h[v] <= h[u] + w(u, v), so w(u, v) + h[u] - h[v] is never negative and keeps
+// the same shortest paths. Dijkstra then runs once per source on the reweighted graph, in
+// parallel, and d(u, v) = d'(u, v) - h[u] + h[v]. Rows go to a RowConsumer as soon as they are
+// ready, so memory is O(V + E) per worker instead of the V x V matrices of FloydWarshall.
+public class Johnson {
+    // Receives one finished row. The arrays are the worker's scratch buffers and are overwritten
+    // by its next row, so copy anything that must outlive the call. Rows arrive from several
+    // threads at once and in no particular order.
+    interface RowConsumer {
+        void accept(int source, int[] distances, int[] predecessors);
+    }
+
+    Graph graph;
+    int parallelism = Runtime.getRuntime().availableProcessors();
+    final int INF = Distances.INF;
+
+    private int[] potential;
+    private Graph reweighted;
+
+    Johnson(Graph graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        this.graph = graph;
+    }
+
+    void setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.parallelism = parallelism;
+    }
+
+    // Streams the rows of every node
+    void run(RowConsumer consumer) {
+        int[] sources = new int[graph.size()];
+        for (int v = 0; v < sources.length; v++) {
+            sources[v] = v;
+        }
+        run(sources, consumer);
+    }
+
+    // Throws IllegalStateException if the graph has a negative cycle, before any row is produced
+    void run(int[] sources, RowConsumer consumer) {
+        for (int source : sources) {
+            if (source < 0 || source >= graph.size()) {
+                throw new IllegalArgumentException("Invalid start node");
+            }
+        }
+        prepare();
+        int n = graph.size();
+        ThreadLocal<Dijkstra> dijkstra = ThreadLocal.withInitial(() -> new Dijkstra(reweighted));
+        ThreadLocal<int[]> rows = ThreadLocal.withInitial(() -> new int[n]);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            ParallelRange.forEach(pool, 0, sources.length, 1, (from, to) -> {
+                Dijkstra solver = dijkstra.get();
+                int[] row = rows.get();
+                for (int i = from; i < to; i++) {
+                    int source = sources[i];
+                    solver.solve(source);
+                    for (int v = 0; v < n; v++) {
+                        int distance = solver.distanceList[v];
+                        row[v] = distance == INF ? INF : (int) ((long) distance - potential[source] + potential[v]);
+                    }
+                    consumer.accept(source, row, solver.path);
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Computes the potentials and the reweighted graph once; later runs reuse them
+    private void prepare() {
+        if (reweighted != null) return;
+        int n = graph.size();
+        if (!graph.hasNegativeWeights()) {
+            potential = new int[n];
+            reweighted = graph;
+            return;
+        }
+
+        Graph.Builder builder = new Graph.Builder(n + 1, graph.edgeCount() + n);
+        for (int u = 0; u < n; u++) {
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                builder.addEdge(u, graph.targets[e], graph.weights[e]);
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            builder.addEdge(n, v, 0);
+        }
+        // Cycle detection is BellmanFord.runSpfa's; a cycle rejects the graph before any row runs
+        BellmanFord bellmanFord = new BellmanFord(builder.build(), BellmanFord.Mode.SPFA);
+        bellmanFord.solve(n);
+        potential = Arrays.copyOf(bellmanFord.distanceList, n);
+
+        int[] weights = new int[graph.edgeCount()];
+        for (int u = 0; u < n; u++) {
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                long weight = (long) graph.weights[e] + potential[u] - potential[graph.targets[e]];
+                if (weight >= INF) {
+                    throw new IllegalArgumentException("Reweighted edge " + u + " -> " + graph.targets[e] + " exceeds the weight range");
+                }
+                weights[e] = (int) weight;
+            }
+        }
+        reweighted = graph.withWeights(weights);
+    }
+}
@@ -0,0 +1,165 @@
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+// ALT preprocessing (A*, landmarks, triangle inequality). For a few landmarks L we store d(L, v)
+// and d(v, L) for every node; the triangle inequality then gives the lower bound
+//   d(v, t) >= max(d(L, t) - d(L, v), d(v, L) - d(t, L))
+// which works as an A* heuristic on graphs without coordinates.
+public class Landmarks implements Heuristic {
+    static final int INF = Distances.INF;
+    private static final int MAGIC = 0x414c5431;  // "ALT1"
+
+    final int size;
+    final int[] landmarks;
+    // Row-major by landmark: fromLandmark[l * size + v] = d(landmarks[l], v)
+    final int[] fromLandmark;
+    // toLandmark[l * size + v] = d(v, landmarks[l])
+    final int[] toLandmark;
+
+    private Landmarks(int size, int[] landmarks, int[] fromLandmark, int[] toLandmark) {
+        this.size = size;
+        this.landmarks = landmarks;
+        this.fromLandmark = fromLandmark;
+        this.toLandmark = toLandmark;
+    }
+
+    // Farthest-point selection: each new landmark is the reachable node farthest from all the
+    // landmarks chosen so far. Selection needs the forward tables, so it runs one Dijkstra per
+    // landmark in turn; the reverse tables are then computed in parallel.
+    static Landmarks selectFarthest(Graph graph, int count, int parallelism) {
+        if (count <= 0 || count > graph.size()) {
+            throw new IllegalArgumentException("Landmark count must be between 1 and the number of nodes");
+        }
+        int n = graph.size();
+        int[] landmarks = new int[count];
+        int[] fromLandmark = new int[count * n];
+        int[] nearest = new int[n];
+        Arrays.fill(nearest, INF);
+
+        Dijkstra dijkstra = new Dijkstra(graph);
+        // The first landmark is the node farthest from node 0
+        dijkstra.solve(0);
+        int candidate = farthest(dijkstra.distanceList, nearest);
+        for (int l = 0; l < count; l++) {
+            landmarks[l] = candidate;
+            dijkstra.solve(candidate);
+            System.arraycopy(dijkstra.distanceList, 0, fromLandmark, l * n, n);
+            for (int v = 0; v < n; v++) {
+                nearest[v] = Math.min(nearest[v], dijkstra.distanceList[v]);
+            }
+            nearest[candidate] = -1;
+            candidate = farthest(nearest, nearest);
+        }
+
+        int[] toLandmark = new int[count * n];
+        computeTables(graph.reverse(), landmarks, toLandmark, parallelism);
+        return new Landmarks(n, landmarks, fromLandmark, toLandmark);
+    }
+
+    // Uses the given landmarks and computes both tables, one landmark per task
+    static Landmarks compute(Graph graph, int[] landmarks, int parallelism) {
+        int n = graph.size();
+        for (int landmark : landmarks) {
+            if (landmark < 0 || landmark >= n) {
+                throw new IllegalArgumentException("Invalid landmark " + landmark);
+            }
+        }
+        int[] fromLandmark = new int[landmarks.length * n];
+        int[] toLandmark = new int[landmarks.length * n];
+        computeTables(graph, landmarks, fromLandmark, parallelism);
+        computeTables(graph.reverse(), landmarks, toLandmark, parallelism);
+        return new Landmarks(n, landmarks.clone(), fromLandmark, toLandmark);
+    }
+
+    private static void computeTables(Graph graph, int[] landmarks, int[] table, int parallelism) {
+        int n = graph.size();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            ParallelRange.forEach(pool, 0, landmarks.length, 1, (from, to) -> {
+                Dijkstra dijkstra = new Dijkstra(graph);
+                for (int l = from; l < to; l++) {
+                    dijkstra.solve(landmarks[l]);
+                    System.arraycopy(dijkstra.distanceList, 0, table, l * n, n);
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Reachable non-landmark node (nearest >= 0) with the largest value in distances; when no
+    // such node is reachable, the lowest-numbered remaining node so unreachable regions get covered
+    private static int farthest(int[] distances, int[] nearest) {
+        int best = -1;
+        for (int v = 0; v < distances.length; v++) {
+            if (nearest[v] < 0 || distances[v] == INF) continue;
+            if (best == -1 || distances[v] > distances[best]) best = v;
+        }
+        if (best == -1) {
+            for (int v = 0; v < nearest.length; v++) {
+                if (nearest[v] >= 0) return v;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public int estimate(int node, int target) {
+        int best = 0;
+        for (int l = 0, row = 0; l < landmarks.length; l++, row += size) {
+            int landmarkToTarget = fromLandmark[row + target];
+            int landmarkToNode = fromLandmark[row + node];
+            if (landmarkToTarget != INF && landmarkToNode != INF) {
+                best = Math.max(best, landmarkToTarget - landmarkToNode);
+            }
+            int nodeToLandmark = toLandmark[row + node];
+            int targetToLandmark = toLandmark[row + target];
+            if (nodeToLandmark != INF && targetToLandmark != INF) {
+                best = Math.max(best, nodeToLandmark - targetToLandmark);
+            }
+        }
+        return best;
+    }
+
+    // Header (magic, node count, landmark count), the landmark ids, then both tables,
+    // all as little-endian ints
+    void save(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            IntFiles.write(channel, new int[] { MAGIC, size, landmarks.length });
+            IntFiles.write(channel, landmarks);
+            IntFiles.write(channel, fromLandmark);
+            IntFiles.write(channel, toLandmark);
+        }
+    }
+
+    static Landmarks load(Path file, Graph graph) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            int[] header = IntFiles.read(channel, 3);
+            if (header[0] != MAGIC) {
+                throw new IOException("Not a landmark file: " + file);
+            }
+            if (header[1] != graph.size()) {
+                throw new IOException("Landmark file was built for " + header[1] + " nodes, graph has " + graph.size());
+            }
+            int count = header[2];
+            // Each table is count x size ints; checked in long so a corrupt count cannot wrap
+            long cells = (long) count * header[1];
+            if (count < 0 || cells > Integer.MAX_VALUE - 8) {
+                throw new IOException("Landmark file has an invalid landmark count " + count + ": " + file);
+            }
+            long expected = 4 * (3 + count + 2 * cells);
+            if (channel.size() != expected) {
+                throw new IOException("Landmark file has " + channel.size() + " bytes, expected " + expected + ": " + file);
+            }
+            int[] landmarks = IntFiles.read(channel, count);
+            int[] fromLandmark = IntFiles.read(channel, (int) cells);
+            int[] toLandmark = IntFiles.read(channel, (int) cells);
+            return new Landmarks(header[1], landmarks, fromLandmark, toLandmark);
+        }
+    }
+}
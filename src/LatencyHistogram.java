@@ -0,0 +1,75 @@
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Lock-free log-linear histogram of nanosecond latencies. Values below 8 get exact buckets;
+// above that every power of two is split into 8 buckets, so any recorded value is reported
+// within 12.5% over the whole long range. Buckets are LongAdders, so concurrent recorders do
+// not contend on one cache line.
+public class LatencyHistogram {
+    private static final int SUB_BITS = 3;
+    private static final int SUB = 1 << SUB_BITS;
+
+    private final LongAdder[] buckets = new LongAdder[(64 - SUB_BITS) * SUB];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets[bucketOf(value)].increment();
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    long count() {
+        return count.sum();
+    }
+
+    long sum() {
+        return sum.sum();
+    }
+
+    long max() {
+        return max.get();
+    }
+
+    // Upper bound of the bucket holding the given fraction of recorded values, capped at max();
+    // 0 when nothing was recorded
+    long percentile(double fraction) {
+        if (fraction < 0 || fraction > 1) {
+            throw new IllegalArgumentException("Fraction must be in [0, 1]");
+        }
+        long total = count.sum();
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i].sum();
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        return (exponent - SUB_BITS + 1) * SUB + (int) ((value >>> (exponent - SUB_BITS)) & (SUB - 1));
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < SUB) return bucket;
+        int exponent = bucket / SUB + SUB_BITS - 1;
+        long sub = bucket % SUB;
+        long bound = ((SUB + sub + 1) << (exponent - SUB_BITS)) - 1;
+        return bound < 0 ? Long.MAX_VALUE : bound;
+    }
+}
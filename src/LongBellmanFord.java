@@ -0,0 +1,93 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// Bellman-Ford over a LongGraph: the CLASSIC passes of BellmanFord with long distances. Nodes
+// reachable through a negative cycle end at -Distances.LONG_INF before the exception is thrown.
+public class LongBellmanFord {
+    LongGraph graph;
+    long[] distanceList;
+    int[] path;
+    final long INF = Distances.LONG_INF;
+
+    LongBellmanFord(LongGraph graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        this.graph = graph;
+        distanceList = new long[graph.size()];
+        path = new int[graph.size()];
+        Arrays.fill(distanceList, INF);
+        Arrays.fill(path, -1);
+    }
+
+    void solve(int start) {
+        if (start < 0 || start >= graph.size()) {
+            throw new IllegalArgumentException("Invalid start node");
+        }
+        Arrays.fill(distanceList, INF);
+        Arrays.fill(path, -1);
+        distanceList[start] = 0;
+        path[start] = start;
+
+        int n = graph.size();
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        long[] weights = graph.weights;
+        for (int i = 0; i < n; i++) {
+            boolean updated = false;
+            for (int u = 0; u < n; u++) {
+                long du = distanceList[u];
+                if (du == INF) continue;
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    int v = targets[e];
+                    long newDistance = Distances.saturatingAdd(du, weights[e]);
+                    if (newDistance < distanceList[v]) {
+                        distanceList[v] = newDistance;
+                        path[v] = u;
+                        updated = true;
+                    }
+                }
+            }
+            if (!updated) return;
+        }
+
+        // The V-th pass still improved something, so a negative cycle is reachable
+        markNegativeCycles();
+        throw new IllegalStateException("Graph contains a negative weight cycle");
+    }
+
+    // Everything still relaxable after V passes is fed by a negative cycle, as is everything
+    // reachable from it
+    private void markNegativeCycles() {
+        int n = graph.size();
+        int[] stack = new int[Math.max(n, 1)];
+        int count = 0;
+        boolean[] marked = new boolean[n];
+        for (int u = 0; u < n; u++) {
+            long du = distanceList[u];
+            if (du == INF) continue;
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                int v = graph.targets[e];
+                if (Distances.saturatingAdd(du, graph.weights[e]) < distanceList[v] && !marked[v]) {
+                    marked[v] = true;
+                    stack[count++] = v;
+                }
+            }
+        }
+        while (count > 0) {
+            int u = stack[--count];
+            distanceList[u] = -INF;
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                int v = graph.targets[e];
+                if (!marked[v]) {
+                    marked[v] = true;
+                    stack[count++] = v;
+                }
+            }
+        }
+    }
+
+    ArrayList<Integer> getPath(int start, int end) {
+        return LongDijkstra.buildPath(distanceList, path, start, end);
+    }
+}
@@ -0,0 +1,109 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+// Dijkstra over a LongGraph: the INDEXED search of Dijkstra with long distances. Unreachable
+// nodes keep Distances.LONG_INF.
+public class LongDijkstra {
+    LongGraph graph;
+    IndexedMinHeap heap;
+    long[] distanceList;
+    int[] path;
+    boolean[] visited;
+    int settledCount;  // nodes settled by the last query
+    final long INF = Distances.LONG_INF;
+
+    LongDijkstra(LongGraph graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        if (graph.hasNegativeWeights()) {
+            throw new IllegalArgumentException("Dijkstra requires non-negative edge weights");
+        }
+        this.graph = graph;
+        distanceList = new long[graph.size()];
+        path = new int[graph.size()];
+        visited = new boolean[graph.size()];
+        heap = new IndexedMinHeap(graph.size());
+        Arrays.fill(distanceList, INF);
+        Arrays.fill(path, -1);
+    }
+
+    // Settles the whole graph; read distanceList and path afterwards
+    void solve(int start) {
+        solve(start, -1);
+    }
+
+    // Stops once target is settled and returns its distance (INF if unreachable)
+    long shortestDistance(int start, int target) {
+        if (target < 0 || target >= graph.size()) {
+            throw new IllegalArgumentException("Invalid target node");
+        }
+        solve(start, target);
+        return distanceList[target];
+    }
+
+    private void solve(int start, int target) {
+        if (start < 0 || start >= graph.size()) {
+            throw new IllegalArgumentException("Invalid start node");
+        }
+        Arrays.fill(distanceList, INF);
+        Arrays.fill(path, -1);
+        Arrays.fill(visited, false);
+        distanceList[start] = 0;
+        path[start] = start;
+
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        long[] weights = graph.weights;
+        heap.clear();
+        heap.insertOrDecrease(start, 0);
+        settledCount = 0;
+        while (!heap.isEmpty()) {
+            int node = heap.poll();
+            visited[node] = true;
+            settledCount++;
+            if (node == target) break;
+
+            long distance = distanceList[node];
+            for (int e = offsets[node]; e < offsets[node + 1]; e++) {
+                int nextNode = targets[e];
+                // Saturates at INF, so a sum past the range never looks like an improvement
+                long newDistance = Distances.saturatingAdd(distance, weights[e]);
+                if (!visited[nextNode] && newDistance < distanceList[nextNode]) {
+                    distanceList[nextNode] = newDistance;
+                    path[nextNode] = node;
+                    heap.insertOrDecrease(nextNode, newDistance);
+                }
+            }
+        }
+    }
+
+    ArrayList<Integer> getPath(int start, int end) {
+        return buildPath(distanceList, path, start, end);
+    }
+
+    // Dijkstra.buildPath for long distances
+    static ArrayList<Integer> buildPath(long[] distanceList, int[] path, int start, int end) {
+        if (start < 0 || start >= path.length || end < 0 || end >= path.length) {
+            throw new IllegalArgumentException("Invalid node index");
+        }
+        ArrayList<Integer> p = new ArrayList<>();
+        if (distanceList[end] == Distances.LONG_INF) {
+            return p;  // No path exists
+        }
+        int current = end;
+        int steps = 0;
+        while (current != start) {
+            p.add(current);
+            current = path[current];
+            // A predecessor chain longer than the graph only happens behind a negative cycle
+            if (current == -1 || ++steps > path.length) {
+                return new ArrayList<>();
+            }
+        }
+        p.add(start);
+        Collections.reverse(p);
+        return p;
+    }
+}
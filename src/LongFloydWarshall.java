@@ -0,0 +1,165 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+// Floyd-Warshall over a LongGraph: the SCALAR kernel of FloydWarshall on long[][] rows, with
+// the same row-parallel pivots, and pairs that meet a negative cycle are marked -INF by the rule
+// of BlockedFloydWarshall.markNegativeCycles.
+public class LongFloydWarshall {
+    LongGraph graph;
+    int parallelism = 1;  // worker threads; 1 keeps the whole run on the calling thread
+    long[][] distanceMatrix;
+    int[][] nextNode;
+    final long INF = Distances.LONG_INF;
+    int size;
+
+    LongFloydWarshall(LongGraph graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        this.graph = graph;
+        this.size = graph.size();
+        this.distanceMatrix = new long[size][size];
+        this.nextNode = new int[size][size];
+
+        for (int i = 0; i < size; i++) {
+            Arrays.fill(distanceMatrix[i], INF);
+            Arrays.fill(nextNode[i], -1);
+            distanceMatrix[i][i] = 0;
+
+            // Parallel edges keep the lightest one, and only a negative self-loop beats the 0 diagonal
+            for (int e = graph.offsets[i]; e < graph.offsets[i + 1]; e++) {
+                int j = graph.targets[e];
+                long weight = graph.weights[e];
+                if (weight < distanceMatrix[i][j]) {
+                    distanceMatrix[i][j] = weight;
+                    nextNode[i][j] = j;
+                }
+            }
+        }
+    }
+
+    void floydWarshall() {
+        ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        try {
+            for (int k = 0; k < size; k++) {
+                relaxAll(k, pool);
+            }
+            markNegativeCycles(pool);
+        } finally {
+            if (pool != null) pool.shutdown();
+        }
+
+        if (hasNegativeCycle()) {
+            throw new IllegalStateException("Graph contains a negative weight cycle");
+        }
+    }
+
+    // Same scheme as FloydWarshall.relaxAll: rows i < k see a snapshot of row k when pivot k
+    // changes its own row
+    private void relaxAll(int k, ForkJoinPool pool) {
+        long[] rowK = distanceMatrix[k];
+        if (pool == null) {
+            for (int i = 0; i < size; i++) {
+                relaxRow(i, k, rowK);
+            }
+            return;
+        }
+        long[] before = rowK;
+        if (rowK[k] < 0) {
+            before = rowK.clone();
+            relaxRow(k, k, rowK);
+        }
+        long[] earlierRows = before;
+        ParallelRange.forEach(pool, 0, size, ParallelRange.grainFor(pool, size), (from, to) -> {
+            for (int i = from; i < to; i++) {
+                if (i == k && earlierRows != rowK) continue;
+                relaxRow(i, k, i < k ? earlierRows : rowK);
+            }
+        });
+    }
+
+    private void relaxRow(int i, int k, long[] rowK) {
+        long[] rowI = distanceMatrix[i];
+        long dik = rowI[k];
+        if (dik == INF) return;
+        int[] nextI = nextNode[i];
+        for (int j = 0; j < size; j++) {
+            long dkj = rowK[j];
+            if (dkj == INF) continue;
+            // Both operands lie in [-INF, INF], so the sum saturates instead of wrapping
+            long candidate = Distances.saturatingAdd(dik, dkj);
+            if (candidate < rowI[j]) {
+                rowI[j] = candidate;
+                nextI[j] = nextI[k];
+            }
+        }
+    }
+
+    // (i, j) becomes -INF, with no next node, when some k with a negative diagonal is reachable
+    // from i and reaches j, as in FloydWarshall
+    private void markNegativeCycles(ForkJoinPool pool) {
+        int[] negative = new int[size];
+        int count = 0;
+        for (int k = 0; k < size; k++) {
+            if (distanceMatrix[k][k] < 0) negative[count++] = k;
+        }
+        if (count == 0) return;
+
+        int pivots = count;
+        ParallelRange.Body markRows = (from, to) -> {
+            for (int i = from; i < to; i++) {
+                long[] rowI = distanceMatrix[i];
+                int[] nextI = nextNode[i];
+                for (int p = 0; p < pivots; p++) {
+                    int k = negative[p];
+                    if (rowI[k] == INF) continue;
+                    long[] rowK = distanceMatrix[k];
+                    for (int j = 0; j < size; j++) {
+                        if (rowK[j] != INF) {
+                            rowI[j] = -INF;
+                            nextI[j] = -1;
+                        }
+                    }
+                }
+            }
+        };
+        if (pool == null) {
+            markRows.run(0, size);
+        } else {
+            ParallelRange.forEach(pool, 0, size, ParallelRange.grainFor(pool, size), markRows);
+        }
+    }
+
+    void setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.parallelism = parallelism;
+    }
+
+    private boolean hasNegativeCycle() {
+        for (int i = 0; i < size; i++) {
+            if (distanceMatrix[i][i] < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    ArrayList<Integer> getPath(int start, int end) {
+        ArrayList<Integer> path = new ArrayList<>();
+        if (distanceMatrix[start][end] == INF || distanceMatrix[start][end] == -INF) {
+            return path;  // No path exists, or no shortest one through a negative cycle
+        }
+        int at = start;
+        path.add(at);
+        // A shortest path has at most size - 1 hops; a longer chain would be a corrupt matrix
+        while (at != end) {
+            at = nextNode[at][end];
+            if (at == -1 || path.size() > size) return new ArrayList<>();
+            path.add(at);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,122 @@
+import java.util.Arrays;
+
+// CSR graph with long weights for path costs past the int range (about 10^9). Same layout and
+// edge order as Graph; weights must lie strictly between -Distances.LONG_INF and LONG_INF so a
+// finite distance plus a weight never overflows.
+public class LongGraph {
+    final int[] offsets;
+    final int[] targets;
+    final long[] weights;
+    final int size;
+    final boolean negativeWeights;
+
+    private LongGraph(int size, int[] offsets, int[] targets, long[] weights, boolean negativeWeights) {
+        this.size = size;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.negativeWeights = negativeWeights;
+    }
+
+    // Widens an int graph; the offsets and targets arrays are shared rather than copied
+    static LongGraph fromGraph(Graph graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        long[] weights = new long[graph.weights.length];
+        for (int e = 0; e < weights.length; e++) {
+            weights[e] = graph.weights[e];
+        }
+        return new LongGraph(graph.size(), graph.offsets, graph.targets, weights, graph.hasNegativeWeights());
+    }
+
+    int size() {
+        return size;
+    }
+
+    int edgeCount() {
+        return targets.length;
+    }
+
+    boolean hasNegativeWeights() {
+        return negativeWeights;
+    }
+
+    // Collects edges in flat arrays and counting-sorts them by source on build(), like Graph.Builder
+    static class Builder {
+        private final int size;
+        private int[] from;
+        private int[] to;
+        private long[] weight;
+        private int edgeCount;
+        private boolean negativeWeights;
+
+        Builder(int size) {
+            this(size, 16);
+        }
+
+        Builder(int size, int expectedEdges) {
+            if (size < 0) {
+                throw new IllegalArgumentException("Number of nodes cannot be negative");
+            }
+            this.size = size;
+            int capacity = Math.max(expectedEdges, 1);
+            from = new int[capacity];
+            to = new int[capacity];
+            weight = new long[capacity];
+        }
+
+        Builder addEdge(int u, int v, long w) {
+            if (from == null) {
+                throw new IllegalStateException("Builder has already been built");
+            }
+            if (u < 0 || u >= size || v < 0 || v >= size) {
+                throw new IllegalArgumentException("Invalid edge " + u + " -> " + v);
+            }
+            if (w <= -Distances.LONG_INF || w >= Distances.LONG_INF) {
+                throw new IllegalArgumentException("Edge weight out of range: " + w);
+            }
+            if (edgeCount == from.length) {
+                int capacity = (int) Math.min(Integer.MAX_VALUE - 8, (long) from.length * 2);
+                if (capacity == edgeCount) {
+                    throw new IllegalStateException("Too many edges");
+                }
+                from = Arrays.copyOf(from, capacity);
+                to = Arrays.copyOf(to, capacity);
+                weight = Arrays.copyOf(weight, capacity);
+            }
+            from[edgeCount] = u;
+            to[edgeCount] = v;
+            weight[edgeCount] = w;
+            edgeCount++;
+            if (w < 0) negativeWeights = true;
+            return this;
+        }
+
+        LongGraph build() {
+            if (from == null) {
+                throw new IllegalStateException("Builder has already been built");
+            }
+            int[] offsets = new int[size + 1];
+            for (int e = 0; e < edgeCount; e++) {
+                offsets[from[e] + 1]++;
+            }
+            for (int u = 0; u < size; u++) {
+                offsets[u + 1] += offsets[u];
+            }
+
+            int[] targets = new int[edgeCount];
+            long[] weights = new long[edgeCount];
+            int[] cursor = Arrays.copyOf(offsets, size);
+            for (int e = 0; e < edgeCount; e++) {
+                int slot = cursor[from[e]]++;
+                targets[slot] = to[e];
+                weights[slot] = weight[e];
+            }
+            from = null;
+            to = null;
+            weight = null;
+            return new LongGraph(size, offsets, targets, weights, negativeWeights);
+        }
+    }
+}
@@ -1,35 +1,20 @@
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Scanner;
 
 public class Main {
-    final static int INF = Integer.MAX_VALUE/2;
+    final static int INF = Distances.INF;
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         Scanner in = new Scanner(System.in);
+        // A binary graph file (see GraphFile) on the command line replaces the typed edge list
+        Graph loaded = args.length > 0 ? GraphFile.read(Path.of(args[0])) : null;
         while (true) {
-            System.out.println("Enter the number of nodes: ");
-            int N = in.nextInt();
-            System.out.println("Enter the number of edges: ");
-            int M = in.nextInt();
-            boolean negative = false;
-            ArrayList<ArrayList<int[]>> adjacencyList = new ArrayList<>();
-            ArrayList<ArrayList<Integer>> adjacencyMatrix = new ArrayList<>();
-            for (int i = 0; i < N; i++) {
-                adjacencyList.add(new ArrayList<>());
-                adjacencyMatrix.add(new ArrayList<>());
-                for (int j = 0; j < N; j++) {
-                    adjacencyMatrix.get(i).add(INF);
-                }
-            }
-            System.out.println("The Edges (from to weight): ");
-            for (int i = 0; i < M; i++) {
-                int u = in.nextInt();
-                int v = in.nextInt();
-                int weight = in.nextInt();
-                if (weight < 0) negative = true;
-                adjacencyList.get(u).add(new int[]{v, weight});
-                adjacencyMatrix.get(u).set(v, weight);
-            }
+            Graph graph = loaded != null ? loaded : readGraph(in);
+            int N = graph.size();
+            boolean negative = graph.hasNegativeWeights();
+            TraceListener trace = new ConsoleTraceListener();
             System.out.println("Enter the algorithm: \n\t 1) dijkstra\n\t 2) bellman algorithm\n\t 3) floyd warshall algorithm");
             int choice = in.nextInt();
             if (choice == 1) {
@@ -37,14 +22,15 @@ public class Main {
                     System.out.println("There is a negative distance the algorithm may fail\n");
                     continue;
                 }
-                Dijkstra dijkstra = new Dijkstra(adjacencyList);
+                Dijkstra dijkstra = new Dijkstra(graph);
+                dijkstra.setTraceListener(trace);
                 System.out.println("Entre the source node: ");
                 int startNode = in.nextInt();
                 ArrayList<Integer> distances = dijkstra.dijkstra(startNode);
                 System.out.println("Shortest distances from node " + startNode + ":");
                 for (int i = 0; i < distances.size(); i++) {
                     System.out.println("Node " + i + ": " +
-                            (distances.get(i) == Integer.MAX_VALUE ? "Unreachable" : distances.get(i)));
+                            (distances.get(i) == INF ? "Unreachable" : distances.get(i)));
                 }
 
                 for (int i = 0; i < distances.size(); i++) {
@@ -54,7 +40,8 @@ public class Main {
 
 
             } else if (choice == 2) {
-                BellmanFord bellmanFord = new BellmanFord(adjacencyList);
+                BellmanFord bellmanFord = new BellmanFord(graph);
+                bellmanFord.setTraceListener(trace);
                 System.out.println("Entre the source node: ");
                 int startNode = in.nextInt();
                 ArrayList<Integer> distances;
@@ -68,14 +55,15 @@ public class Main {
                 System.out.println("Shortest distances from node " + startNode + ":");
                 for (int i = 0; i < distances.size(); i++) {
                     System.out.println("Node " + i + ": " +
-                            (distances.get(i) == Integer.MAX_VALUE ? "Unreachable" : distances.get(i)));
+                            (distances.get(i) == INF ? "Unreachable" : distances.get(i)));
                 }
                 for (int i = 0; i < distances.size(); i++) {
                     ArrayList<Integer> p = bellmanFord.getPath(startNode, i);
                     System.out.println("path to node " + i + ":" + p);
                 }
             } else if (choice == 3) {
-                FloydWarshall fw = new FloydWarshall(adjacencyList);
+                FloydWarshall fw = new FloydWarshall(graph);
+                fw.setTraceListener(trace);
                 try {
                     fw.floydWarshall();
                 } catch (IllegalStateException e) {
@@ -103,4 +91,20 @@ public class Main {
             }
         }
     }
-}
\ No newline at end of file
+
+    static Graph readGraph(Scanner in) {
+        System.out.println("Enter the number of nodes: ");
+        int N = in.nextInt();
+        System.out.println("Enter the number of edges: ");
+        int M = in.nextInt();
+        Graph.Builder builder = new Graph.Builder(N, M);
+        System.out.println("The Edges (from to weight): ");
+        for (int i = 0; i < M; i++) {
+            int u = in.nextInt();
+            int v = in.nextInt();
+            int weight = in.nextInt();
+            builder.addEdge(u, v, weight);
+        }
+        return builder.build();
+    }
+}
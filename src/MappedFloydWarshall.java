@@ -0,0 +1,387 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+// Floyd-Warshall whose distance and next-node matrices live in a memory-mapped file instead of
+// two int[size][size] arrays, so V is bounded by disk space rather than heap. Both matrices are
+// stored tile by tile (B x B ints per tile, edge tiles padded with INF), which keeps every tile
+// contiguous on disk. The three-phase blocked rounds of BlockedFloydWarshall copy the one to
+// three tiles they touch into per-thread scratch arrays, relax them with the same RowKernel and
+// write the result back, so the output matches Kernel.BLOCKED with the same tile size. While the
+// rounds run the next-node tiles hold via (see BlockedFloydWarshall); finishNext() converts them.
+// The file keeps the result: open() maps it read-only in a later process for getPath.
+//
+// Layout: a 4 KiB header (magic, node count, tile size, state), the distance tiles, then the
+// next-node tiles, all little-endian ints.
+public class MappedFloydWarshall implements AutoCloseable {
+    static final int INF = Distances.INF;
+    private static final int MAGIC = 0x46574d31;  // "FWM1"
+    private static final long HEADER_BYTES = 4096;
+    private static final long MAX_CHUNK_BYTES = 1L << 30;
+    static final int STATE_INITIALIZED = 0;
+    static final int STATE_COMPLETE = 1;
+    static final int STATE_NEGATIVE_CYCLE = 2;
+
+    final int size;
+    final int tileSize;
+    final int blocks;
+    int state;
+    FloydWarshall.Kernel kernel = FloydWarshall.Kernel.BLOCKED;
+    int parallelism = 1;
+
+    private final FileChannel channel;
+    private final boolean writable;
+    private final int tilesPerChunk;
+    // A matrix spans several mappings because one MappedByteBuffer is limited to 2 GB
+    private final MappedByteBuffer[] mappings;
+    private final IntBuffer[] distChunks;
+    private final IntBuffer[] nextChunks;
+    private final MappedByteBuffer header;
+
+    private MappedFloydWarshall(FileChannel channel, boolean writable, int size, int tileSize, int state) throws IOException {
+        this.channel = channel;
+        this.writable = writable;
+        this.size = size;
+        this.tileSize = tileSize;
+        this.blocks = (size + tileSize - 1) / tileSize;
+        this.state = state;
+        long tileBytes = 4L * tileSize * tileSize;
+        long tiles = (long) blocks * blocks;
+        tilesPerChunk = (int) Math.max(1, Math.min(tiles, MAX_CHUNK_BYTES / tileBytes));
+        int chunks = (int) ((tiles + tilesPerChunk - 1) / tilesPerChunk);
+        FileChannel.MapMode mode = writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+        header = channel.map(mode, 0, HEADER_BYTES);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        mappings = new MappedByteBuffer[2 * chunks];
+        distChunks = new IntBuffer[chunks];
+        nextChunks = new IntBuffer[chunks];
+        long matrixBytes = tiles * tileBytes;
+        for (int c = 0; c < chunks; c++) {
+            long offset = (long) c * tilesPerChunk * tileBytes;
+            long length = Math.min(tilesPerChunk * tileBytes, matrixBytes - offset);
+            mappings[2 * c] = channel.map(mode, HEADER_BYTES + offset, length);
+            mappings[2 * c + 1] = channel.map(mode, HEADER_BYTES + matrixBytes + offset, length);
+            distChunks[c] = mappings[2 * c].order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            nextChunks[c] = mappings[2 * c + 1].order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        }
+    }
+
+    // Creates or overwrites the file and fills it with the edge weights of the graph
+    static MappedFloydWarshall create(Graph graph, Path file, int tileSize) throws IOException {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        if (tileSize <= 0) {
+            throw new IllegalArgumentException("Tile size must be positive");
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            MappedFloydWarshall matrix = new MappedFloydWarshall(channel, true, graph.size(), tileSize, STATE_INITIALIZED);
+            matrix.writeHeader();
+            matrix.load(graph);
+            return matrix;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Maps a file written by create() read-only; nothing is copied onto the heap
+    static MappedFloydWarshall open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("Not a Floyd-Warshall matrix file: " + file);
+            }
+            IntBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, 16).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            if (header.get(0) != MAGIC) {
+                throw new IOException("Not a Floyd-Warshall matrix file: " + file);
+            }
+            int size = header.get(1);
+            int tileSize = header.get(2);
+            int state = header.get(3);
+            if (size < 0 || tileSize <= 0 || state < STATE_INITIALIZED || state > STATE_NEGATIVE_CYCLE) {
+                throw new IOException("Corrupt Floyd-Warshall matrix header: " + file);
+            }
+            // Header, then the distance and next-node tiles, nothing more or less
+            long blocks = ((long) size + tileSize - 1) / tileSize;
+            long expected = HEADER_BYTES + 2 * 4 * blocks * blocks * tileSize * tileSize;
+            if (channel.size() != expected) {
+                throw new IOException("Floyd-Warshall matrix file has " + channel.size() + " bytes, expected "
+                        + expected + ": " + file);
+            }
+            return new MappedFloydWarshall(channel, false, size, tileSize, state);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void writeHeader() {
+        header.putInt(0, MAGIC);
+        header.putInt(4, size);
+        header.putInt(8, tileSize);
+        header.putInt(12, state);
+    }
+
+    // Builds one row of tiles at a time on the heap (tileSize x padded width) and writes it out
+    private void load(Graph graph) {
+        int width = blocks * tileSize;
+        int[] dist = new int[tileSize * width];
+        int[] next = new int[tileSize * width];
+        for (int ib = 0; ib < blocks; ib++) {
+            Arrays.fill(dist, INF);
+            Arrays.fill(next, -1);
+            for (int r = 0; r < tileSize; r++) {
+                int i = ib * tileSize + r;
+                if (i >= size) break;
+                dist[r * width + i] = 0;
+                // Parallel edges keep the lightest one, as in FloydWarshall; via stays -1
+                for (int e = graph.offsets[i]; e < graph.offsets[i + 1]; e++) {
+                    int cell = r * width + graph.targets[e];
+                    dist[cell] = Math.min(dist[cell], graph.weights[e]);
+                }
+            }
+            for (int jb = 0; jb < blocks; jb++) {
+                int tile = ib * blocks + jb;
+                IntBuffer distChunk = distChunks[tile / tilesPerChunk];
+                IntBuffer nextChunk = nextChunks[tile / tilesPerChunk];
+                int base = (tile % tilesPerChunk) * tileSize * tileSize;
+                for (int r = 0; r < tileSize; r++) {
+                    distChunk.put(base + r * tileSize, dist, r * width + jb * tileSize, tileSize);
+                    nextChunk.put(base + r * tileSize, next, r * width + jb * tileSize, tileSize);
+                }
+            }
+        }
+    }
+
+    void setKernel(FloydWarshall.Kernel kernel) {
+        this.kernel = kernel;
+    }
+
+    void setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.parallelism = parallelism;
+    }
+
+    // Same contract as FloydWarshall.floydWarshall: pairs connected through a negative cycle end
+    // up as -INF and an IllegalStateException is thrown. The state is recorded in the header.
+    void floydWarshall() {
+        if (!writable) {
+            throw new IllegalStateException("Matrix was opened read-only");
+        }
+        RowKernel rowKernel = kernel == FloydWarshall.Kernel.VECTOR ? RowKernel.selected() : RowKernel.SCALAR;
+        int area = tileSize * tileSize;
+        // Scratch regions: the tile being updated, the tile holding column k, the tile holding row k
+        ThreadLocal<int[]> distScratch = ThreadLocal.withInitial(() -> new int[3 * area]);
+        ThreadLocal<int[]> nextScratch = ThreadLocal.withInitial(() -> new int[3 * area]);
+        ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        try {
+            for (int kb = 0; kb < blocks; kb++) {
+                int pivot = kb;
+                relaxTile(kb, kb, kb, rowKernel, distScratch.get(), nextScratch.get());
+                forBlocks(pool, (from, to) -> {
+                    for (int b = from; b < to; b++) {
+                        if (b == pivot) continue;
+                        relaxTile(pivot, b, pivot, rowKernel, distScratch.get(), nextScratch.get());
+                        relaxTile(b, pivot, pivot, rowKernel, distScratch.get(), nextScratch.get());
+                    }
+                });
+                forBlocks(pool, (from, to) -> {
+                    for (int ib = from; ib < to; ib++) {
+                        if (ib == pivot) continue;
+                        for (int jb = 0; jb < blocks; jb++) {
+                            if (jb != pivot) relaxTile(ib, jb, pivot, rowKernel, distScratch.get(), nextScratch.get());
+                        }
+                    }
+                });
+            }
+            state = markNegativeCycles(pool) ? STATE_NEGATIVE_CYCLE : STATE_COMPLETE;
+            finishNext(pool);
+        } finally {
+            if (pool != null) pool.shutdown();
+        }
+        writeHeader();
+        if (state == STATE_NEGATIVE_CYCLE) {
+            throw new IllegalStateException("Graph contains a negative weight cycle");
+        }
+    }
+
+    private void forBlocks(ForkJoinPool pool, ParallelRange.Body body) {
+        if (pool == null) {
+            body.run(0, blocks);
+        } else {
+            ParallelRange.forEach(pool, 0, blocks, 1, body);
+        }
+    }
+
+    // Applies the pivots of block kb to tile (ib, jb). Tiles that coincide share one scratch
+    // region so in-place updates are seen exactly as in BlockedFloydWarshall.relaxTile.
+    private void relaxTile(int ib, int jb, int kb, RowKernel rowKernel, int[] dist, int[] next) {
+        int area = tileSize * tileSize;
+        readTile(ib, jb, dist, next, 0);
+        int columnK = 0;
+        if (jb != kb) {
+            columnK = area;
+            readTile(ib, kb, dist, next, columnK);
+        }
+        int rowK = 0;
+        if (ib != kb) {
+            rowK = 2 * area;
+            readTile(kb, jb, dist, next, rowK);
+        }
+        int pivots = Math.min(tileSize, size - kb * tileSize);
+        for (int k = 0; k < pivots; k++) {
+            int kRow = rowK + k * tileSize;
+            int pivot = kb * tileSize + k;
+            for (int r = 0; r < tileSize; r++) {
+                int dik = dist[columnK + r * tileSize + k];
+                if (dik == INF) continue;
+                int vik = Math.max(next[columnK + r * tileSize + k], pivot);
+                rowKernel.relax(dist, next, r * tileSize, kRow, dik, vik, 0, tileSize);
+            }
+        }
+        writeTile(ib, jb, dist, next);
+    }
+
+    private void readTile(int ib, int jb, int[] dist, int[] next, int offset) {
+        int tile = ib * blocks + jb;
+        int base = (tile % tilesPerChunk) * tileSize * tileSize;
+        distChunks[tile / tilesPerChunk].get(base, dist, offset, tileSize * tileSize);
+        nextChunks[tile / tilesPerChunk].get(base, next, offset, tileSize * tileSize);
+    }
+
+    private void writeTile(int ib, int jb, int[] dist, int[] next) {
+        int tile = ib * blocks + jb;
+        int base = (tile % tilesPerChunk) * tileSize * tileSize;
+        distChunks[tile / tilesPerChunk].put(base, dist, 0, tileSize * tileSize);
+        nextChunks[tile / tilesPerChunk].put(base, next, 0, tileSize * tileSize);
+    }
+
+    // (i, j) becomes -INF when i reaches some k with dist(k, k) < 0 and k reaches j, as in
+    // BlockedFloydWarshall.markNegativeCycles; rows of tiles are marked independently
+    private boolean markNegativeCycles(ForkJoinPool pool) {
+        int[] negative = new int[size];
+        int count = 0;
+        for (int k = 0; k < size; k++) {
+            if (distance(k, k) < 0) negative[count++] = k;
+        }
+        if (count == 0) return false;
+
+        int pivots = count;
+        forBlocks(pool, (from, to) -> {
+            int[] dist = new int[tileSize * tileSize];
+            int[] next = new int[tileSize * tileSize];
+            for (int ib = from; ib < to; ib++) {
+                for (int jb = 0; jb < blocks; jb++) {
+                    readTile(ib, jb, dist, next, 0);
+                    for (int p = 0; p < pivots; p++) {
+                        int k = negative[p];
+                        for (int r = 0; r < tileSize && ib * tileSize + r < size; r++) {
+                            if (distance(ib * tileSize + r, k) == INF) continue;
+                            for (int c = 0; c < tileSize && jb * tileSize + c < size; c++) {
+                                if (distance(k, jb * tileSize + c) != INF) {
+                                    dist[r * tileSize + c] = -INF;
+                                }
+                            }
+                        }
+                    }
+                    writeTile(ib, jb, dist, next);
+                }
+            }
+        });
+        return true;
+    }
+
+    // Replaces via with next pointers one row of tiles at a time, after markNegativeCycles
+    private void finishNext(ForkJoinPool pool) {
+        int width = blocks * tileSize;
+        forBlocks(pool, (from, to) -> {
+            int[] dist = new int[tileSize * width];
+            int[] via = new int[tileSize * width];
+            int[] count = new int[size + 2];
+            int[] order = new int[size];
+            for (int ib = from; ib < to; ib++) {
+                readStrip(ib, dist, via);
+                for (int r = 0; r < tileSize && ib * tileSize + r < size; r++) {
+                    BlockedFloydWarshall.viaToNext(ib * tileSize + r, dist, via, r * width, size, count, order);
+                }
+                writeStrip(ib, via);
+            }
+        });
+    }
+
+    // Copies the row of tiles ib into tileSize x (blocks * tileSize) row-major arrays
+    private void readStrip(int ib, int[] dist, int[] next) {
+        int width = blocks * tileSize;
+        for (int jb = 0; jb < blocks; jb++) {
+            int tile = ib * blocks + jb;
+            int base = (tile % tilesPerChunk) * tileSize * tileSize;
+            for (int r = 0; r < tileSize; r++) {
+                distChunks[tile / tilesPerChunk].get(base + r * tileSize, dist, r * width + jb * tileSize, tileSize);
+                nextChunks[tile / tilesPerChunk].get(base + r * tileSize, next, r * width + jb * tileSize, tileSize);
+            }
+        }
+    }
+
+    private void writeStrip(int ib, int[] next) {
+        int width = blocks * tileSize;
+        for (int jb = 0; jb < blocks; jb++) {
+            int tile = ib * blocks + jb;
+            int base = (tile % tilesPerChunk) * tileSize * tileSize;
+            for (int r = 0; r < tileSize; r++) {
+                nextChunks[tile / tilesPerChunk].put(base + r * tileSize, next, r * width + jb * tileSize, tileSize);
+            }
+        }
+    }
+
+    int distance(int i, int j) {
+        int tile = (i / tileSize) * blocks + j / tileSize;
+        return distChunks[tile / tilesPerChunk].get((tile % tilesPerChunk) * tileSize * tileSize
+                + (i % tileSize) * tileSize + j % tileSize);
+    }
+
+    int next(int i, int j) {
+        int tile = (i / tileSize) * blocks + j / tileSize;
+        return nextChunks[tile / tilesPerChunk].get((tile % tilesPerChunk) * tileSize * tileSize
+                + (i % tileSize) * tileSize + j % tileSize);
+    }
+
+    // Same format as FloydWarshall.getPath; each hop is one lookup in the mapped file
+    ArrayList<Integer> getPath(int start, int end) {
+        ArrayList<Integer> path = new ArrayList<>();
+        if (distance(start, end) == INF || distance(start, end) == -INF) {
+            return path;  // No path exists, or no shortest one through a negative cycle
+        }
+        int at = start;
+        path.add(at);
+        while (at != end) {
+            at = next(at, end);
+            if (at == -1) return new ArrayList<>();
+            path.add(at);
+        }
+        return path;
+    }
+
+    // Flushes a writable mapping to disk; the mappings themselves are released by the GC
+    @Override
+    public void close() throws IOException {
+        if (writable) {
+            header.force();
+            for (MappedByteBuffer mapping : mappings) {
+                mapping.force();
+            }
+        }
+        channel.close();
+    }
+}
@@ -0,0 +1,93 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// SolverMetrics that accumulates into striped LongAdder counters and latency histograms, safe
+// to share between threads and cheap enough to leave attached in production. snapshot() reads
+// each counter once; counters updated while it runs may be off by the queries in flight.
+public class MetricsRegistry implements SolverMetrics {
+    final LongAdder dijkstraQueries = new LongAdder();
+    final LongAdder dijkstraSettled = new LongAdder();
+    final LongAdder dijkstraEdgesScanned = new LongAdder();
+    final LongAdder dijkstraRelaxations = new LongAdder();
+    final LongAdder dijkstraHeapPushes = new LongAdder();
+    final LongAdder dijkstraHeapPops = new LongAdder();
+    final LongAdder dijkstraStalePops = new LongAdder();
+    final LatencyHistogram dijkstraLatency = new LatencyHistogram();
+
+    final LongAdder bellmanFordQueries = new LongAdder();
+    final LongAdder bellmanFordPasses = new LongAdder();
+    final LongAdder bellmanFordRelaxations = new LongAdder();
+    final LatencyHistogram bellmanFordLatency = new LatencyHistogram();
+
+    final LongAdder floydWarshallRuns = new LongAdder();
+    final LongAdder floydWarshallIterations = new LongAdder();
+    final LatencyHistogram floydWarshallLatency = new LatencyHistogram();
+
+    @Override
+    public void dijkstraQuery(long nanos, int settled, long edgesScanned, long relaxations,
+                              long heapPushes, long heapPops, long stalePops) {
+        dijkstraQueries.increment();
+        dijkstraSettled.add(settled);
+        dijkstraEdgesScanned.add(edgesScanned);
+        dijkstraRelaxations.add(relaxations);
+        dijkstraHeapPushes.add(heapPushes);
+        dijkstraHeapPops.add(heapPops);
+        dijkstraStalePops.add(stalePops);
+        dijkstraLatency.record(nanos);
+    }
+
+    @Override
+    public void bellmanFordQuery(long nanos, int passes, long relaxations) {
+        bellmanFordQueries.increment();
+        bellmanFordPasses.add(passes);
+        bellmanFordRelaxations.add(relaxations);
+        bellmanFordLatency.record(nanos);
+    }
+
+    @Override
+    public void floydWarshallRun(long nanos, int kIterations) {
+        floydWarshallRuns.increment();
+        floydWarshallIterations.add(kIterations);
+        floydWarshallLatency.record(nanos);
+    }
+
+    // Plain name -> value pairs in a fixed order; histograms export count, sum, p50, p90, p99 and max
+    Map<String, Long> snapshot() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        values.put("dijkstra_queries", dijkstraQueries.sum());
+        values.put("dijkstra_nodes_settled", dijkstraSettled.sum());
+        values.put("dijkstra_edges_scanned", dijkstraEdgesScanned.sum());
+        values.put("dijkstra_relaxations", dijkstraRelaxations.sum());
+        values.put("dijkstra_heap_pushes", dijkstraHeapPushes.sum());
+        values.put("dijkstra_heap_pops", dijkstraHeapPops.sum());
+        values.put("dijkstra_stale_pops", dijkstraStalePops.sum());
+        putHistogram(values, "dijkstra_latency_ns", dijkstraLatency);
+        values.put("bellman_ford_queries", bellmanFordQueries.sum());
+        values.put("bellman_ford_passes", bellmanFordPasses.sum());
+        values.put("bellman_ford_relaxations", bellmanFordRelaxations.sum());
+        putHistogram(values, "bellman_ford_latency_ns", bellmanFordLatency);
+        values.put("floyd_warshall_runs", floydWarshallRuns.sum());
+        values.put("floyd_warshall_k_iterations", floydWarshallIterations.sum());
+        putHistogram(values, "floyd_warshall_latency_ns", floydWarshallLatency);
+        return values;
+    }
+
+    // One "name value" line per snapshot entry
+    String toText() {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, Long> entry : snapshot().entrySet()) {
+            text.append(entry.getKey()).append(' ').append(entry.getValue()).append('\n');
+        }
+        return text.toString();
+    }
+
+    private static void putHistogram(Map<String, Long> values, String name, LatencyHistogram histogram) {
+        values.put(name + "_count", histogram.count());
+        values.put(name + "_sum", histogram.sum());
+        values.put(name + "_p50", histogram.percentile(0.50));
+        values.put(name + "_p90", histogram.percentile(0.90));
+        values.put(name + "_p99", histogram.percentile(0.99));
+        values.put(name + "_max", histogram.max());
+    }
+}
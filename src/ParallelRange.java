@@ -0,0 +1,49 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Splits an index range into chunks of at most grain elements and runs them on a ForkJoinPool,
+// returning once every chunk has finished
+public class ParallelRange {
+    interface Body {
+        void run(int from, int to);
+    }
+
+    static void forEach(ForkJoinPool pool, int from, int to, int grain, Body body) {
+        if (to - from <= grain || pool.getParallelism() == 1) {
+            body.run(from, to);
+            return;
+        }
+        pool.invoke(new Chunk(from, to, Math.max(1, grain), body));
+    }
+
+    // Grain that gives each worker a few chunks so uneven rows still balance
+    static int grainFor(ForkJoinPool pool, int count) {
+        return Math.max(1, count / (pool.getParallelism() * 4));
+    }
+
+    // Tasks are never serialized; RecursiveAction is Serializable only through ForkJoinTask
+    @SuppressWarnings("serial")
+    private static class Chunk extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final int grain;
+        private final Body body;
+
+        Chunk(int from, int to, int grain, Body body) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                body.run(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Chunk(from, middle, grain, body), new Chunk(middle, to, grain, body));
+        }
+    }
+}
@@ -0,0 +1,22 @@
+import java.util.ArrayList;
+
+// Distances and predecessors of one single-source query, owned by the caller
+public class QueryResult {
+    final int source;
+    final int[] distances;
+    final int[] predecessors;
+
+    QueryResult(int source, int[] distances, int[] predecessors) {
+        this.source = source;
+        this.distances = distances;
+        this.predecessors = predecessors;
+    }
+
+    int distance(int node) {
+        return distances[node];
+    }
+
+    ArrayList<Integer> getPath(int end) {
+        return Dijkstra.buildPath(distances, predecessors, source, end);
+    }
+}
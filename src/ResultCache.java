@@ -0,0 +1,218 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+// Size-bounded LRU cache of single-source results keyed by (graph version, source, algorithm).
+// Entries are split over independently locked segments, each with an equal share of the byte
+// budget and its own access-ordered map, so lookups on different segments never contend.
+// Cached QueryResults are shared between callers and must be treated as read-only.
+public class ResultCache {
+    enum Algorithm { DIJKSTRA, BELLMAN_FORD }
+
+    private final Segment[] segments;
+    private final long segmentBytes;
+    private final AtomicLong minimumVersion = new AtomicLong(Long.MIN_VALUE);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    ResultCache(long maxBytes) {
+        this(maxBytes, 16);
+    }
+
+    ResultCache(long maxBytes, int segmentCount) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Cache budget must be positive");
+        }
+        if (segmentCount <= 0) {
+            throw new IllegalArgumentException("Segment count must be positive");
+        }
+        // Power of two so a segment is picked with a mask
+        int count = Integer.highestOneBit(segmentCount - 1) << 1;
+        if (segmentCount == 1) count = 1;
+        segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment();
+        }
+        segmentBytes = Math.max(1, maxBytes / count);
+    }
+
+    // Cached result, or null (counted as a miss)
+    QueryResult get(long version, int source, Algorithm algorithm) {
+        Key key = new Key(version, source, algorithm);
+        QueryResult result = segmentFor(key).get(key);
+        if (result != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return result;
+    }
+
+    // Results for versions older than the last invalidation, and results too large for a
+    // segment, are not stored
+    void put(long version, int source, Algorithm algorithm, QueryResult result) {
+        if (result == null) {
+            throw new IllegalArgumentException("Result cannot be null");
+        }
+        if (version < minimumVersion.get()) return;
+        long bytes = sizeOf(result);
+        if (bytes > segmentBytes) return;
+        Key key = new Key(version, source, algorithm);
+        segmentFor(key).put(key, result, bytes);
+    }
+
+    // The loader runs outside any lock, so two threads missing on the same key at once may both
+    // compute it; the later result replaces the earlier one
+    QueryResult computeIfAbsent(long version, int source, Algorithm algorithm, IntFunction<QueryResult> loader) {
+        QueryResult result = get(version, source, algorithm);
+        if (result == null) {
+            result = loader.apply(source);
+            put(version, source, algorithm, result);
+        }
+        return result;
+    }
+
+    // Drops every entry computed against a version older than the given one and refuses such
+    // entries from now on
+    void invalidateBefore(long version) {
+        minimumVersion.accumulateAndGet(version, Math::max);
+        for (Segment segment : segments) {
+            segment.removeOlderThan(version);
+        }
+    }
+
+    // Invalidates the cache on every change of the graph
+    void watch(DynamicGraph graph) {
+        graph.addListener((u, v, oldWeight, newWeight) -> invalidateBefore(graph.version()));
+    }
+
+    void clear() {
+        for (Segment segment : segments) {
+            segment.removeOlderThan(Long.MAX_VALUE);
+        }
+    }
+
+    long hitCount() {
+        return hits.sum();
+    }
+
+    long missCount() {
+        return misses.sum();
+    }
+
+    long evictionCount() {
+        return evictions.sum();
+    }
+
+    long invalidationCount() {
+        return invalidations.sum();
+    }
+
+    int size() {
+        int total = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                total += segment.map.size();
+            }
+        }
+        return total;
+    }
+
+    long bytes() {
+        long total = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                total += segment.bytes;
+            }
+        }
+        return total;
+    }
+
+    // Estimated heap footprint: two int arrays with their headers plus the entry, key and map node
+    static long sizeOf(QueryResult result) {
+        return 2 * (16 + 4L * result.distances.length) + 96;
+    }
+
+    private Segment segmentFor(Key key) {
+        int h = key.hashCode();
+        return segments[(h ^ (h >>> 16)) & (segments.length - 1)];
+    }
+
+    private static final class Key {
+        final long version;
+        final int source;
+        final Algorithm algorithm;
+
+        Key(long version, int source, Algorithm algorithm) {
+            this.version = version;
+            this.source = source;
+            this.algorithm = algorithm;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) return false;
+            Key key = (Key) other;
+            return version == key.version && source == key.source && algorithm == key.algorithm;
+        }
+
+        @Override
+        public int hashCode() {
+            return (Long.hashCode(version) * 31 + source) * 31 + algorithm.ordinal();
+        }
+    }
+
+    private static final class Entry {
+        final QueryResult result;
+        final long bytes;
+
+        Entry(QueryResult result, long bytes) {
+            this.result = result;
+            this.bytes = bytes;
+        }
+    }
+
+    private final class Segment {
+        // Access order: get() moves an entry to the end, so the eldest entry is least recently used
+        final LinkedHashMap<Key, Entry> map = new LinkedHashMap<>(16, 0.75f, true);
+        long bytes;
+
+        synchronized QueryResult get(Key key) {
+            Entry entry = map.get(key);
+            return entry == null ? null : entry.result;
+        }
+
+        synchronized void put(Key key, QueryResult result, long size) {
+            // invalidateBefore raises minimumVersion before it sweeps the segments, so checking
+            // again under the lock means a stale entry is either refused here or swept afterwards
+            if (key.version < minimumVersion.get()) return;
+            Entry previous = map.put(key, new Entry(result, size));
+            if (previous != null) bytes -= previous.bytes;
+            bytes += size;
+            Iterator<Entry> eldest = map.values().iterator();
+            while (bytes > segmentBytes) {
+                Entry evicted = eldest.next();
+                eldest.remove();
+                bytes -= evicted.bytes;
+                evictions.increment();
+            }
+        }
+
+        synchronized void removeOlderThan(long version) {
+            Iterator<Map.Entry<Key, Entry>> it = map.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Key, Entry> entry = it.next();
+                if (entry.getKey().version < version) {
+                    it.remove();
+                    bytes -= entry.getValue().bytes;
+                    invalidations.increment();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+import java.util.Arrays;
+import java.util.Random;
+
+// Min-plus update of one row segment of a flat Floyd-Warshall matrix. via[c] is the highest
+// pivot on the path stored in dist[c] (-1 for a direct edge), and vik is max(via[i][k], k).
+// For j in [from, to) with dist[kRow + j] != INF, the candidate is dik + dist[kRow + j]
+// clamped at -INF, with via max(vik, via[kRow + j]); it replaces (i, j) when it is shorter, or
+// as short with a lower via. That tie rule picks the path the textbook pivot order finds first,
+// so blocked and parallel orders end with the same paths as FloydWarshall.Kernel.SCALAR.
+public interface RowKernel {
+    int INF = Distances.INF;
+
+    void relax(int[] dist, int[] via, int iRow, int kRow, int dik, int vik, int from, int to);
+
+    RowKernel SCALAR = (dist, via, iRow, kRow, dik, vik, from, to) -> {
+        for (int j = from; j < to; j++) {
+            int dkj = dist[kRow + j];
+            if (dkj == INF) continue;
+            // Both terms are at least -INF, so the sum cannot wrap before it is clamped
+            int candidate = Math.max(dik + dkj, -INF);
+            int dij = dist[iRow + j];
+            if (candidate > dij) continue;
+            int candidateVia = Math.max(vik, via[kRow + j]);
+            if (candidate < dij || candidateVia < via[iRow + j]) {
+                dist[iRow + j] = candidate;
+                via[iRow + j] = candidateVia;
+            }
+        }
+    };
+
+    // Resolved once, on first use
+    static RowKernel selected() {
+        return Selection.KERNEL;
+    }
+
+    final class Selection {
+        static final RowKernel KERNEL = vectorOrScalar();
+    }
+
+    // The Vector API kernel lives in src-vector and needs --add-modules jdk.incubator.vector
+    // at compile and run time. It is only used when it loads and passes selfCheck.
+    static RowKernel vectorOrScalar() {
+        try {
+            RowKernel vector = (RowKernel) Class.forName("VectorRowKernel").getDeclaredConstructor().newInstance();
+            return selfCheck(vector) ? vector : SCALAR;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return SCALAR;
+        }
+    }
+
+    // Compares a kernel with SCALAR bit-for-bit on rows mixing INF, -INF, finite values and
+    // ties, including the aliased case where row i is row k
+    static boolean selfCheck(RowKernel kernel) {
+        Random random = new Random(1);
+        int n = 67;
+        int[] values = { INF, -INF, 0, 1, -1, INF - 1, -INF + 1 };
+        for (int round = 0; round < 50; round++) {
+            int[] dist = new int[n * 2];
+            int[] via = new int[n * 2];
+            for (int c = 0; c < dist.length; c++) {
+                dist[c] = random.nextInt(4) == 0 ? values[random.nextInt(values.length)] : random.nextInt(21) - 10;
+                via[c] = random.nextInt(n + 1) - 1;
+            }
+            int kRow = random.nextBoolean() ? 0 : n;
+            int iRow = random.nextBoolean() ? 0 : n;
+            int dik = random.nextInt(3) == 0 ? values[random.nextInt(values.length)] : random.nextInt(21) - 10;
+            int vik = random.nextInt(n);
+            int from = random.nextInt(n);
+            int to = from + random.nextInt(n - from + 1);
+
+            int[] expectedDist = dist.clone();
+            int[] expectedVia = via.clone();
+            SCALAR.relax(expectedDist, expectedVia, iRow, kRow, dik, vik, from, to);
+            kernel.relax(dist, via, iRow, kRow, dik, vik, from, to);
+            if (!Arrays.equals(expectedDist, dist) || !Arrays.equals(expectedVia, via)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
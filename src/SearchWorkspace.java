@@ -0,0 +1,101 @@
+import java.util.Arrays;
+
+// Reusable scratch state for single-source queries on graphs of one size. Every slot carries
+// the epoch of the query that last wrote it, so starting a query only bumps the epoch: values
+// from earlier queries read as unset without an O(V) clear, and the stamps are wiped only when
+// the epoch counter wraps. A workspace serves one query at a time, so each thread needs its own;
+// after warm-up, queries through it allocate nothing.
+public class SearchWorkspace {
+    final int size;
+    final int[] distance;
+    final int[] parent;
+    final int[] stamp;  // epoch in which distance and parent were last written
+    final int[] mark;  // settled (Dijkstra) or queued (SPFA) when equal to the epoch
+    final IndexedMinHeap heap;
+    int[] queue;  // SPFA ring buffer, allocated on first use
+    int[] counter;  // SPFA edges on the walk behind each distance, valid where stamp matches
+    int epoch;
+    int source = -1;
+    int settledCount;  // nodes settled (Dijkstra) or scanned (SPFA) by the last query
+    private final View view = new View();
+
+    SearchWorkspace(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Number of nodes cannot be negative");
+        }
+        this.size = size;
+        distance = new int[size];
+        parent = new int[size];
+        stamp = new int[size];
+        mark = new int[size];
+        heap = new IndexedMinHeap(size);
+    }
+
+    // Starts a new query; everything written by earlier ones becomes unset
+    void begin(int source, int graphSize) {
+        if (graphSize != size) {
+            throw new IllegalArgumentException("Workspace is for " + size + " nodes, graph has " + graphSize);
+        }
+        if (source < 0 || source >= size) {
+            throw new IllegalArgumentException("Invalid start node");
+        }
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            Arrays.fill(mark, 0);
+            epoch = 0;
+        }
+        epoch++;
+        heap.clear();
+        this.source = source;
+        settledCount = 0;
+    }
+
+    int distance(int node) {
+        return stamp[node] == epoch ? distance[node] : Distances.INF;
+    }
+
+    int parent(int node) {
+        return stamp[node] == epoch ? parent[node] : -1;
+    }
+
+    void set(int node, int nodeDistance, int nodeParent) {
+        distance[node] = nodeDistance;
+        parent[node] = nodeParent;
+        stamp[node] = epoch;
+    }
+
+    boolean isMarked(int node) {
+        return mark[node] == epoch;
+    }
+
+    void setMarked(int node, boolean marked) {
+        mark[node] = marked ? epoch : 0;
+    }
+
+    // The result of the last query, read in place
+    DistanceView view() {
+        return view;
+    }
+
+    private final class View implements DistanceView {
+        @Override
+        public int source() {
+            return source;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public int distance(int node) {
+            return SearchWorkspace.this.distance(node);
+        }
+
+        @Override
+        public int predecessor(int node) {
+            return parent(node);
+        }
+    }
+}
@@ -5,8 +5,20 @@ import static org.junit.Assert.assertThrows;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
 
+import com.sun.management.ThreadMXBean;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -168,21 +180,9 @@ public class ShortestPathAlgorithmsTest {
         addEdge( 4, 5, 2);
         addEdge( 5, 6, 2);
         addEdge( 6, 4, 1);
-        Dijkstra dijkstra = new Dijkstra(adjacencyList);
-        long startTime = System.currentTimeMillis();
-        ArrayList<Integer> dijkstraResult = dijkstra.dijkstra(0);
-        ArrayList<Integer> path = dijkstra.getPath(0, 5);
-        long endTime = System.currentTimeMillis();
-        System.out.println("Dijkstra's algorithm time: " + (endTime - startTime) + " ns");
-        int[] expectedDijkstra = { 0, 2, 7, 9, 3, 5, 2 };
-        int[] expectedPath = { 0, 2, 3, 6, 4, 5 };
-
-        for (int i = 0; i < path.size(); i++) {
-            assert path.get(i) == expectedPath[i] : "Dijkstra's algorithm failed at node " + i;
-        }
-        for (int i = 0; i < dijkstraResult.size(); i++) {
-            assert dijkstraResult.get(i) == expectedDijkstra[i] : "Dijkstra's algorithm failed at node " + i;
-        }
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> new Dijkstra(adjacencyList));
+        assertEquals("Dijkstra requires non-negative edge weights", exception.getMessage());
     }
 
     @Test
@@ -249,14 +249,9 @@ public class ShortestPathAlgorithmsTest {
         addEdge(2, 4, -4);
         addEdge(4, 5, 2);
         addEdge(3, 5, 10);
-        Dijkstra dijkstra = new Dijkstra(adjacencyList);
-        long startTime = System.currentTimeMillis();
-        ArrayList<Integer> dijkstraResult = dijkstra.dijkstra(0);
-        long endTime = System.currentTimeMillis();
-        System.out.println("Dijkstra's algorithm time: " + (endTime - startTime) + " ns");
-        int[] expectedDijkstra = { 0, 2, 3, 4, -1, 1 };
-        int[] result = dijkstraResult.stream().mapToInt(i -> i).toArray();
-        assertArrayEquals(expectedDijkstra, result);
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> new Dijkstra(adjacencyList));
+        assertEquals("Dijkstra requires non-negative edge weights", exception.getMessage());
     }
 
     @Test
@@ -322,14 +317,9 @@ public class ShortestPathAlgorithmsTest {
         addEdge(1, 5, 10);
         addEdge(2, 6, 5);
         addEdge(6, 5, 1);
-        Dijkstra dijkstra = new Dijkstra(adjacencyList);
-        long startTime = System.currentTimeMillis();
-        ArrayList<Integer> dijkstraResult = dijkstra.dijkstra(0);
-        long endTime = System.currentTimeMillis();
-        System.out.println("Dijkstra's algorithm time: " + (endTime - startTime) + " ns");
-        int[] expectedDijkstra = { 0, 4, 3, 4, -2, 0, 8 };
-        int[] result = dijkstraResult.stream().mapToInt(i -> i).toArray();
-        assertArrayEquals(expectedDijkstra, result);
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> new Dijkstra(adjacencyList));
+        assertEquals("Dijkstra requires non-negative edge weights", exception.getMessage());
     }
 
     @Test
@@ -396,16 +386,11 @@ public class ShortestPathAlgorithmsTest {
     addEdge(2, 0, -4);
     addEdge(1, 3, 5);
     addEdge(3, 4, -2);
-    Dijkstra dijkstra = new Dijkstra(adjacencyList);
-
-    IllegalStateException exception = assertThrows(IllegalStateException.class,
-    () -> {
-    dijkstra.dijkstra(0);;
-    });
-    assertEquals("Graph contains a negative weight cycle",
+    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+    () -> new Dijkstra(adjacencyList));
+    assertEquals("Dijkstra requires non-negative edge weights",
     exception.getMessage());
-
-    }// infinte loop occur
+    }
 
     @Test
     public void bellmanFordGraphWithNegativeCycle() {
@@ -441,4 +426,1450 @@ public class ShortestPathAlgorithmsTest {
         assertEquals("Graph contains a negative weight cycle", exception.getMessage());
 
     }
+
+    // CSR graph representation
+    @Test
+    public void graphFromAdjacencyListKeepsEdgeOrder() {
+        setup(4);
+        addEdge(0, 2, 5);
+        addEdge(0, 1, 1);
+        addEdge(2, 3, -2);
+        addEdge(1, 3, 4);
+        Graph graph = Graph.fromAdjacencyList(adjacencyList);
+
+        assertEquals(4, graph.size());
+        assertEquals(4, graph.edgeCount());
+        assertArrayEquals(new int[] { 0, 2, 3, 4, 4 }, graph.offsets);
+        assertArrayEquals(new int[] { 2, 1, 3, 3 }, graph.targets);
+        assertArrayEquals(new int[] { 5, 1, 4, -2 }, graph.weights);
+    }
+
+    @Test
+    public void solversAcceptGraphDirectly() {
+        Graph graph = new Graph.Builder(3)
+                .addEdge(0, 1, 1)
+                .addEdge(1, 2, 2)
+                .addEdge(0, 2, 4)
+                .addEdge(2, 0, 3)
+                .build();
+        int[] expected = { 0, 1, 3 };
+
+        Dijkstra dijkstra = new Dijkstra(graph);
+        assertArrayEquals(expected, dijkstra.dijkstra(0).stream().mapToInt(i -> i).toArray());
+        BellmanFord bellmanFord = new BellmanFord(graph);
+        assertArrayEquals(expected, bellmanFord.bellmanFord(0).stream().mapToInt(i -> i).toArray());
+        FloydWarshall floydWarshall = new FloydWarshall(graph);
+        floydWarshall.floydWarshall();
+        assertArrayEquals(expected, floydWarshall.distanceMatrix[0]);
+    }
+
+    // indexed heap and queue selection
+    @Test
+    public void indexedMinHeapSupportsDecreaseKey() {
+        IndexedMinHeap heap = new IndexedMinHeap(6);
+        heap.insertOrDecrease(0, 50);
+        heap.insertOrDecrease(1, 40);
+        heap.insertOrDecrease(2, 30);
+        heap.insertOrDecrease(3, 20);
+        heap.insertOrDecrease(4, 10);
+        heap.insertOrDecrease(0, 5);
+        assertEquals(false, heap.insertOrDecrease(2, 35));
+
+        int[] order = new int[5];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = heap.poll();
+        }
+        assertArrayEquals(new int[] { 0, 4, 3, 2, 1 }, order);
+        assertEquals(true, heap.isEmpty());
+    }
+
+    @Test
+    public void dijkstraQueueTypesAgree() {
+        Random random = new Random(42);
+        Graph.Builder builder = new Graph.Builder(300);
+        for (int i = 0; i < 1500; i++) {
+            builder.addEdge(random.nextInt(300), random.nextInt(300), random.nextInt(100));
+        }
+        Graph graph = builder.build();
+
+        Dijkstra lazy = new Dijkstra(graph, Dijkstra.QueueType.LAZY);
+        Dijkstra indexed = new Dijkstra(graph, Dijkstra.QueueType.INDEXED);
+        assertEquals(lazy.dijkstra(0), indexed.dijkstra(0));
+    }
+
+    // trace listener
+    @Test
+    public void traceListenerReceivesSolverSteps() {
+        setup(3);
+        addEdge(0, 1, 1);
+        addEdge(1, 2, 2);
+        addEdge(0, 2, 4);
+        addEdge(2, 0, 3);
+        int[] calls = new int[3];
+        TraceListener counter = new TraceListener() {
+            @Override
+            public void dijkstraStep(int iteration, int node, int[] distances) {
+                calls[0]++;
+            }
+
+            @Override
+            public void bellmanFordPass(int pass, int[] distances) {
+                calls[1]++;
+            }
+
+            @Override
+            public void floydWarshallStep(int k, int[][] distanceMatrix) {
+                calls[2]++;
+            }
+        };
+
+        Dijkstra dijkstra = new Dijkstra(adjacencyList);
+        dijkstra.setTraceListener(counter);
+        dijkstra.dijkstra(0);
+        BellmanFord bellmanFord = new BellmanFord(adjacencyList);
+        bellmanFord.setTraceListener(counter);
+        bellmanFord.bellmanFord(0);
+        FloydWarshall floydWarshall = new FloydWarshall(adjacencyList);
+        floydWarshall.setTraceListener(counter);
+        floydWarshall.floydWarshall();
+
+        assertArrayEquals(new int[] { 3, 2, 4 }, calls);
+    }
+
+    @Test
+    public void dijkstraSettlesGraphsLargerThanThousandNodes() {
+        int n = 5000;
+        Graph.Builder builder = new Graph.Builder(n);
+        for (int i = 0; i + 1 < n; i++) {
+            builder.addEdge(i, i + 1, 1);
+        }
+        Graph graph = builder.build();
+        for (Dijkstra.QueueType queueType : Dijkstra.QueueType.values()) {
+            Dijkstra dijkstra = new Dijkstra(graph, queueType);
+            dijkstra.solve(0);
+            assertEquals(n - 1, dijkstra.distanceList[n - 1]);
+            assertEquals(n, dijkstra.getPath(0, n - 1).size());
+        }
+    }
+
+    // blocked Floyd-Warshall kernel
+    Graph randomGraphWithoutNegativeCycles(int n, int m, long seed) {
+        // Reweighting non-negative edges by a potential adds negative edges but no negative cycles
+        Random random = new Random(seed);
+        int[] potential = new int[n];
+        for (int i = 0; i < n; i++) {
+            potential[i] = random.nextInt(1000);
+        }
+        Graph.Builder builder = new Graph.Builder(n, m);
+        for (int e = 0; e < m; e++) {
+            int u = random.nextInt(n);
+            int v = random.nextInt(n);
+            builder.addEdge(u, v, random.nextInt(1_000_000) + potential[u] - potential[v]);
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void blockedFloydWarshallMatchesScalar() {
+        Graph graph = randomGraphWithoutNegativeCycles(150, 900, 7);
+        FloydWarshall scalar = new FloydWarshall(graph);
+        scalar.floydWarshall();
+
+        for (int tileSize : new int[] { 1, 7, 32, 64, 200 }) {
+            FloydWarshall blocked = new FloydWarshall(graph);
+            blocked.setKernel(FloydWarshall.Kernel.BLOCKED);
+            blocked.setTileSize(tileSize);
+            blocked.floydWarshall();
+            for (int i = 0; i < graph.size(); i++) {
+                assertArrayEquals(scalar.distanceMatrix[i], blocked.distanceMatrix[i]);
+                assertArrayEquals(scalar.nextNode[i], blocked.nextNode[i]);
+            }
+        }
+    }
+
+    @Test
+    public void blockedFloydWarshallDetectsNegativeCycle() {
+        setup(5);
+        addEdge(0, 1, 3);
+        addEdge(1, 2, -2);
+        addEdge(0, 2, 2);
+        addEdge(2, 0, -4);
+        addEdge(1, 3, 5);
+        addEdge(3, 4, -2);
+        FloydWarshall floydWarshall = new FloydWarshall(adjacencyList);
+        floydWarshall.setKernel(FloydWarshall.Kernel.BLOCKED);
+        floydWarshall.setTileSize(2);
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> {
+            floydWarshall.floydWarshall();
+        });
+        assertEquals("Graph contains a negative weight cycle", exception.getMessage());
+        assertEquals(-BlockedFloydWarshall.INF, floydWarshall.distanceMatrix[0][4]);
+    }
+
+    @Test
+    public void blockedFloydWarshallPathsTerminateWithZeroWeights() {
+        setup(4);
+        addEdge(0, 3, 0);
+        addEdge(1, 0, 0);
+        addEdge(2, 0, 0);
+        addEdge(3, 2, 1);
+        addEdge(3, 1, 0);
+        addEdge(0, 2, 0);
+        addEdge(3, 3, 1);
+        addEdge(0, 2, 1);
+        FloydWarshall scalar = new FloydWarshall(adjacencyList);
+        scalar.floydWarshall();
+        FloydWarshall blocked = new FloydWarshall(adjacencyList);
+        blocked.setKernel(FloydWarshall.Kernel.BLOCKED);
+        blocked.setTileSize(2);
+        blocked.floydWarshall();
+        assertEquals(List.of(0, 3, 1), blocked.getPath(0, 1));
+        for (int i = 0; i < 4; i++) {
+            assertArrayEquals(scalar.nextNode[i], blocked.nextNode[i]);
+        }
+    }
+
+    // Follows next from i to j for at most n hops; -1 when the walk does not reach j
+    int hopsAlongNext(int[][] next, int i, int j) {
+        int hops = 0;
+        for (int at = i; at != j; hops++) {
+            if (at == -1 || hops >= next.length) return -1;
+            at = next[at][j];
+        }
+        return hops;
+    }
+
+    // Small weights make equal-length paths common, which is where the tile order could pick
+    // a different (or cyclic) next node than the textbook order
+    @Test
+    public void floydWarshallKernelsAgreeOnTies() {
+        Random random = new Random(21);
+        for (int round = 0; round < 300; round++) {
+            int n = 2 + random.nextInt(30);
+            boolean negative = round % 2 == 1;
+            Graph.Builder builder = new Graph.Builder(n);
+            for (int e = random.nextInt(4 * n); e >= 0; e--) {
+                builder.addEdge(random.nextInt(n), random.nextInt(n), negative ? random.nextInt(8) - 2 : random.nextInt(3));
+            }
+            Graph graph = builder.build();
+            int tileSize = 1 + random.nextInt(6);
+            FloydWarshall scalar = floydWarshallRun(graph, FloydWarshall.Kernel.SCALAR, tileSize, 1);
+            for (FloydWarshall.Kernel kernel : FloydWarshall.Kernel.values()) {
+                for (int parallelism : new int[] { 1, 3 }) {
+                    FloydWarshall other = floydWarshallRun(graph, kernel, tileSize, parallelism);
+                    for (int i = 0; i < n; i++) {
+                        assertArrayEquals(scalar.distanceMatrix[i], other.distanceMatrix[i]);
+                        assertArrayEquals(scalar.nextNode[i], other.nextNode[i]);
+                    }
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    int d = scalar.distanceMatrix[i][j];
+                    boolean walkable = d != BlockedFloydWarshall.INF && d != -BlockedFloydWarshall.INF;
+                    if (i != j || walkable) {
+                        assertEquals(walkable, hopsAlongNext(scalar.nextNode, i, j) >= 0);
+                    }
+                }
+            }
+        }
+    }
+
+    FloydWarshall floydWarshallRun(Graph graph, FloydWarshall.Kernel kernel, int tileSize, int parallelism) {
+        FloydWarshall floydWarshall = new FloydWarshall(graph);
+        floydWarshall.setKernel(kernel);
+        floydWarshall.setTileSize(tileSize);
+        floydWarshall.setParallelism(parallelism);
+        try {
+            floydWarshall.floydWarshall();
+        } catch (IllegalStateException e) {
+            // negative cycles still leave the marked matrix behind
+        }
+        return floydWarshall;
+    }
+
+    @Test
+    public void floydWarshallKernelsMarkTheSameNegativeCyclePairs() {
+        for (long seed = 1; seed <= 4; seed++) {
+            Graph graph = negativeCycleGraph(90, seed);
+            FloydWarshall scalar = floydWarshallRun(graph, FloydWarshall.Kernel.SCALAR, 16, 1);
+            for (FloydWarshall.Kernel kernel : FloydWarshall.Kernel.values()) {
+                FloydWarshall other = floydWarshallRun(graph, kernel, 16, 2);
+                for (int i = 0; i < graph.size(); i++) {
+                    assertArrayEquals(scalar.distanceMatrix[i], other.distanceMatrix[i]);
+                    assertArrayEquals(scalar.nextNode[i], other.nextNode[i]);
+                    for (int j = 0; j < graph.size(); j++) {
+                        if (other.distanceMatrix[i][j] == -BlockedFloydWarshall.INF) {
+                            assertEquals(0, other.getPath(i, j).size());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // parallel Floyd-Warshall
+    int[][] floydWarshallMatrix(Graph graph, FloydWarshall.Kernel kernel, int parallelism, boolean next) {
+        FloydWarshall floydWarshall = new FloydWarshall(graph);
+        floydWarshall.setKernel(kernel);
+        floydWarshall.setTileSize(16);
+        floydWarshall.setParallelism(parallelism);
+        try {
+            floydWarshall.floydWarshall();
+        } catch (IllegalStateException e) {
+            // negative cycles still leave the marked matrix behind
+        }
+        return next ? floydWarshall.nextNode : floydWarshall.distanceMatrix;
+    }
+
+    @Test
+    public void parallelFloydWarshallMatchesSequential() {
+        Graph withoutCycles = randomGraphWithoutNegativeCycles(120, 700, 11);
+        Random random = new Random(5);
+        Graph.Builder builder = new Graph.Builder(120);
+        for (int e = 0; e < 500; e++) {
+            builder.addEdge(random.nextInt(120), random.nextInt(120), random.nextInt(100) - 8);
+        }
+        Graph withCycles = builder.build();
+
+        for (Graph graph : new Graph[] { withoutCycles, withCycles }) {
+            for (FloydWarshall.Kernel kernel : FloydWarshall.Kernel.values()) {
+                for (boolean next : new boolean[] { false, true }) {
+                    int[][] sequential = floydWarshallMatrix(graph, kernel, 1, next);
+                    int[][] parallel = floydWarshallMatrix(graph, kernel, 4, next);
+                    for (int i = 0; i < graph.size(); i++) {
+                        assertArrayEquals(sequential[i], parallel[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    // vectorized Floyd-Warshall row kernel
+    @Test
+    public void selectedRowKernelMatchesScalar() {
+        assertEquals(true, RowKernel.selfCheck(RowKernel.selected()));
+        assertEquals(true, RowKernel.selfCheck(RowKernel.SCALAR));
+    }
+
+    // Without the incubator module VECTOR silently runs the scalar row kernel, which would make
+    // this test pass without exercising VectorRowKernel at all
+    @Test
+    public void vectorFloydWarshallMatchesScalar() {
+        Assume.assumeTrue("VectorRowKernel needs --add-modules jdk.incubator.vector",
+                RowKernel.selected() != RowKernel.SCALAR);
+        assertEquals("VectorRowKernel", RowKernel.selected().getClass().getName());
+        Random random = new Random(41);
+        Graph.Builder ties = new Graph.Builder(130);
+        for (int e = 0; e < 600; e++) {
+            ties.addEdge(random.nextInt(130), random.nextInt(130), random.nextInt(3));
+        }
+        for (Graph graph : new Graph[] { randomGraphWithoutNegativeCycles(130, 800, 3), ties.build(), negativeCycleGraph(130, 43) }) {
+            for (boolean next : new boolean[] { false, true }) {
+                int[][] scalar = floydWarshallMatrix(graph, FloydWarshall.Kernel.SCALAR, 1, next);
+                int[][] vector = floydWarshallMatrix(graph, FloydWarshall.Kernel.VECTOR, 1, next);
+                int[][] parallel = floydWarshallMatrix(graph, FloydWarshall.Kernel.VECTOR, 3, next);
+                for (int i = 0; i < graph.size(); i++) {
+                    assertArrayEquals(scalar[i], vector[i]);
+                    assertArrayEquals(scalar[i], parallel[i]);
+                }
+            }
+        }
+    }
+
+    // primitive Bellman-Ford and SPFA
+    @Test
+    public void spfaMatchesClassicBellmanFord() {
+        for (long seed = 1; seed <= 5; seed++) {
+            Graph graph = randomGraphWithoutNegativeCycles(200, 1200, seed);
+            BellmanFord classic = new BellmanFord(graph, BellmanFord.Mode.CLASSIC);
+            BellmanFord spfa = new BellmanFord(graph, BellmanFord.Mode.SPFA);
+            classic.solve(0);
+            spfa.solve(0);
+            assertArrayEquals(classic.distanceList, spfa.distanceList);
+        }
+    }
+
+    @Test
+    public void bellmanFordModesMarkNodesBehindNegativeCycle() {
+        setup(6);
+        addEdge(0, 1, 3);
+        addEdge(1, 2, -2);
+        addEdge(2, 1, -1);
+        addEdge(2, 3, 4);
+        addEdge(0, 4, 1);
+        for (BellmanFord.Mode mode : BellmanFord.Mode.values()) {
+            BellmanFord bellmanFord = new BellmanFord(Graph.fromAdjacencyList(adjacencyList), mode);
+            IllegalStateException exception = assertThrows(IllegalStateException.class, () -> {
+                bellmanFord.solve(0);
+            });
+            assertEquals("Graph contains a negative weight cycle", exception.getMessage());
+            int INF = Integer.MAX_VALUE / 2;
+            assertArrayEquals(new int[] { 0, -INF, -INF, -INF, 1, INF }, bellmanFord.distanceList);
+        }
+    }
+
+    @Test
+    public void parallelBellmanFordMatchesClassic() {
+        for (long seed = 1; seed <= 3; seed++) {
+            Graph graph = randomGraphWithoutNegativeCycles(3000, 15000, seed);
+            BellmanFord classic = new BellmanFord(graph, BellmanFord.Mode.CLASSIC);
+            BellmanFord parallel = new BellmanFord(graph, BellmanFord.Mode.PARALLEL);
+            parallel.setParallelism(4);
+            classic.solve(0);
+            parallel.solve(0);
+            assertArrayEquals(classic.distanceList, parallel.distanceList);
+            for (int v = 0; v < graph.size(); v++) {
+                ArrayList<Integer> path = parallel.getPath(0, v);
+                if (parallel.distanceList[v] == Integer.MAX_VALUE / 2) continue;
+                long length = 0;
+                for (int i = 0; i + 1 < path.size(); i++) {
+                    length += edgeWeight(graph, path.get(i), path.get(i + 1));
+                }
+                assertEquals(parallel.distanceList[v], length);
+            }
+        }
+    }
+
+    long edgeWeight(Graph graph, int u, int v) {
+        long best = Long.MAX_VALUE;
+        for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+            if (graph.targets[e] == v) best = Math.min(best, graph.weights[e]);
+        }
+        return best;
+    }
+
+    // delta-stepping
+    @Test
+    public void deltaSteppingMatchesDijkstra() {
+        Random random = new Random(17);
+        Graph.Builder builder = new Graph.Builder(4000, 24000);
+        for (int e = 0; e < 24000; e++) {
+            builder.addEdge(random.nextInt(4000), random.nextInt(4000), random.nextInt(1000));
+        }
+        Graph graph = builder.build();
+        Dijkstra dijkstra = new Dijkstra(graph);
+        dijkstra.solve(0);
+
+        for (int delta : new int[] { 1, 50, DeltaStepping.defaultDelta(graph), 5000 }) {
+            DeltaStepping deltaStepping = new DeltaStepping(graph, delta);
+            deltaStepping.setParallelism(4);
+            deltaStepping.solve(0);
+            assertArrayEquals(dijkstra.distanceList, deltaStepping.distanceList);
+            for (int v = 0; v < graph.size(); v += 97) {
+                ArrayList<Integer> path = deltaStepping.getPath(0, v);
+                long length = 0;
+                for (int i = 0; i + 1 < path.size(); i++) {
+                    length += edgeWeight(graph, path.get(i), path.get(i + 1));
+                }
+                if (!path.isEmpty()) assertEquals(deltaStepping.distanceList[v], length);
+            }
+        }
+    }
+
+    // maxWeight / delta far beyond MAX_BUCKETS used to size the ring and run out of memory
+    @Test
+    public void deltaSteppingCapsBucketRingForHeavyWeights() {
+        Random random = new Random(37);
+        Graph.Builder builder = new Graph.Builder(2000, 10000);
+        for (int e = 0; e < 10000; e++) {
+            int weight = random.nextInt(4) == 0 ? random.nextInt(100_000_000) : random.nextInt(300_000);
+            builder.addEdge(random.nextInt(2000), random.nextInt(2000), weight);
+        }
+        builder.addEdge(0, 1, 500_000_000).addEdge(1, 2, 500_000_000);
+        Graph graph = builder.build();
+        Dijkstra dijkstra = new Dijkstra(graph);
+        for (int source : new int[] { 0, 17 }) {
+            dijkstra.solve(source);
+            for (int delta : new int[] { 1, 1000 }) {
+                DeltaStepping deltaStepping = new DeltaStepping(graph, delta);
+                deltaStepping.setParallelism(2);
+                deltaStepping.solve(source);
+                assertArrayEquals(dijkstra.distanceList, deltaStepping.distanceList);
+            }
+        }
+    }
+
+    // batch query service
+    @Test
+    public void solversAnswerRepeatedQueries() {
+        Graph graph = randomGraphWithoutNegativeCycles(300, 2000, 23);
+        BellmanFord reused = new BellmanFord(graph);
+        for (int source : new int[] { 5, 0, 5, 299 }) {
+            BellmanFord reference = new BellmanFord(graph);
+            reference.solve(source);
+            reused.solve(source);
+            assertArrayEquals(reference.distanceList, reused.distanceList);
+        }
+
+        Graph nonNegative = new Graph.Builder(4).addEdge(0, 1, 2).addEdge(1, 2, 2).addEdge(3, 0, 1).build();
+        Dijkstra dijkstra = new Dijkstra(nonNegative);
+        dijkstra.solve(0);
+        dijkstra.solve(3);
+        assertArrayEquals(new int[] { 1, 3, 5, 0 }, dijkstra.distanceList);
+        dijkstra.solve(1);
+        assertArrayEquals(new int[] { Integer.MAX_VALUE / 2, 0, 2, Integer.MAX_VALUE / 2 }, dijkstra.distanceList);
+    }
+
+    @Test
+    public void serviceAnswersBatchesInParallel() {
+        Random random = new Random(29);
+        Graph.Builder builder = new Graph.Builder(500, 3000);
+        for (int e = 0; e < 3000; e++) {
+            builder.addEdge(random.nextInt(500), random.nextInt(500), random.nextInt(100));
+        }
+        Graph graph = builder.build();
+        int[] sources = new int[64];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = random.nextInt(500);
+        }
+
+        try (ShortestPathService service = new ShortestPathService(graph, 4)) {
+            List<QueryResult> results = service.queryAll(sources);
+            assertEquals(sources.length, results.size());
+            for (int i = 0; i < sources.length; i++) {
+                Dijkstra dijkstra = new Dijkstra(graph);
+                dijkstra.solve(sources[i]);
+                assertEquals(sources[i], results.get(i).source);
+                assertArrayEquals(dijkstra.distanceList, results.get(i).distances);
+                assertEquals(dijkstra.getPath(sources[i], 7), results.get(i).getPath(7));
+            }
+        }
+
+        Graph negative = randomGraphWithoutNegativeCycles(200, 1000, 31);
+        try (ShortestPathService service = new ShortestPathService(negative, 2)) {
+            List<QueryResult> results = service.queryAll(new int[] { 0, 1 });
+            BellmanFord bellmanFord = new BellmanFord(negative);
+            bellmanFord.solve(1);
+            assertArrayEquals(bellmanFord.distanceList, results.get(1).distances);
+        }
+    }
+
+    @Test
+    public void serviceAnswersNegativeDagWithFrequentImprovements() {
+        Graph graph = frequentlyImprovedDag();
+        try (ShortestPathService service = new ShortestPathService(graph, 2)) {
+            List<QueryResult> results = service.queryAll(new int[] { 0, 1, 2, 0 });
+            assertArrayEquals(new int[] { 0, -3, -5 }, results.get(0).distances);
+            assertArrayEquals(results.get(0).distances, results.get(3).distances);
+            assertEquals(List.of(0, 1, 2), results.get(0).getPath(2));
+            assertArrayEquals(new int[] { Distances.INF, 0, -2 }, results.get(1).distances);
+        }
+    }
+
+    // point-to-point queries
+    Graph randomNonNegativeGraph(int n, int m, long seed) {
+        Random random = new Random(seed);
+        Graph.Builder builder = new Graph.Builder(n, m);
+        for (int e = 0; e < m; e++) {
+            builder.addEdge(random.nextInt(n), random.nextInt(n), random.nextInt(100));
+        }
+        return builder.build();
+    }
+
+    long pathLength(Graph graph, ArrayList<Integer> path) {
+        long length = 0;
+        for (int i = 0; i + 1 < path.size(); i++) {
+            length += edgeWeight(graph, path.get(i), path.get(i + 1));
+        }
+        return length;
+    }
+
+    @Test
+    public void pointToPointQueriesMatchFullDijkstra() {
+        Graph graph = randomNonNegativeGraph(800, 3000, 37);
+        Dijkstra full = new Dijkstra(graph);
+        Dijkstra early = new Dijkstra(graph);
+        BidirectionalDijkstra bidirectional = new BidirectionalDijkstra(graph);
+        Random random = new Random(41);
+        for (int query = 0; query < 200; query++) {
+            int start = random.nextInt(800);
+            int target = query % 10 == 0 ? start : random.nextInt(800);
+            full.solve(start);
+            int expected = full.distanceList[target];
+
+            assertEquals(expected, early.shortestDistance(start, target));
+            assertEquals(full.getPath(start, target).size(), early.getPath(start, target).size());
+            assertEquals(expected, bidirectional.shortestDistance(start, target));
+            ArrayList<Integer> path = bidirectional.getPath(start, target);
+            if (expected == Integer.MAX_VALUE / 2) {
+                assertEquals(0, path.size());
+            } else {
+                assertEquals(start, (int) path.get(0));
+                assertEquals(target, (int) path.get(path.size() - 1));
+                assertEquals(expected, pathLength(graph, path));
+            }
+        }
+    }
+
+    @Test
+    public void bidirectionalDijkstraSettlesFewerNodesOnGrid() {
+        int side = 100;
+        Graph.Builder builder = new Graph.Builder(side * side);
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                int node = r * side + c;
+                if (c + 1 < side) {
+                    builder.addEdge(node, node + 1, 1).addEdge(node + 1, node, 1);
+                }
+                if (r + 1 < side) {
+                    builder.addEdge(node, node + side, 1).addEdge(node + side, node, 1);
+                }
+            }
+        }
+        BidirectionalDijkstra bidirectional = new BidirectionalDijkstra(builder.build());
+        int start = 50 * side + 40;
+        int target = 50 * side + 60;
+        assertEquals(20, bidirectional.shortestDistance(start, target));
+        assert bidirectional.settledCount < 1000 : "settled " + bidirectional.settledCount;
+    }
+
+    // A* search
+    @Test
+    public void aStarMatchesDijkstraAndSettlesFewerNodes() {
+        // Grid with random points; each edge costs at least its Euclidean length
+        int side = 60;
+        Random random = new Random(43);
+        double[] x = new double[side * side];
+        double[] y = new double[side * side];
+        for (int node = 0; node < x.length; node++) {
+            x[node] = node % side * 10 + random.nextDouble() * 4;
+            y[node] = node / side * 10 + random.nextDouble() * 4;
+        }
+        Graph.Builder builder = new Graph.Builder(side * side);
+        for (int node = 0; node < x.length; node++) {
+            int[] neighbours = { node % side + 1 < side ? node + 1 : -1, node + side < x.length ? node + side : -1 };
+            for (int other : neighbours) {
+                if (other < 0) continue;
+                int weight = (int) Math.ceil(Math.hypot(x[node] - x[other], y[node] - y[other])) + random.nextInt(5);
+                builder.addEdge(node, other, weight).addEdge(other, node, weight);
+            }
+        }
+        Graph graph = builder.build();
+        Heuristic euclidean = Heuristic.euclidean(x, y, 1.0);
+
+        for (Dijkstra.QueueType queueType : Dijkstra.QueueType.values()) {
+            Dijkstra dijkstra = new Dijkstra(graph, queueType);
+            Dijkstra aStar = new Dijkstra(graph, queueType);
+            for (int query = 0; query < 30; query++) {
+                int start = random.nextInt(x.length);
+                int target = random.nextInt(x.length);
+                int expected = dijkstra.shortestDistance(start, target);
+                assertEquals(expected, aStar.aStar(start, target, Heuristic.ZERO));
+                assertEquals(expected, aStar.aStar(start, target, euclidean));
+                assert aStar.settledCount <= dijkstra.settledCount;
+                assertEquals(expected, pathLength(graph, aStar.getPath(start, target)));
+            }
+        }
+    }
+
+    // Integer.MAX_VALUE is an admissible estimate for nodes that cannot reach the target at all;
+    // distance plus estimate must not wrap to a negative key that jumps the queue
+    @Test
+    public void aStarKeysDoNotOverflow() {
+        Graph graph = new Graph.Builder(5).addEdge(0, 1, 1).addEdge(1, 3, 1).addEdge(0, 2, 5).addEdge(2, 4, 1).build();
+        Heuristic deadEnds = (node, target) -> node == 2 || node == 4 ? Integer.MAX_VALUE : (node == 3 ? 0 : 1);
+        for (Dijkstra.QueueType queueType : Dijkstra.QueueType.values()) {
+            Dijkstra aStar = new Dijkstra(graph, queueType);
+            assertEquals(2, aStar.aStar(0, 3, deadEnds));
+            assertEquals(3, aStar.settledCount);
+            assertEquals(List.of(0, 1, 3), aStar.getPath(0, 3));
+        }
+    }
+
+    @Test
+    public void haversineHeuristicIsGreatCircleDistance() {
+        // Paris and London, roughly 343.5 km apart
+        Heuristic haversine = Heuristic.haversine(new double[] { 48.8566, 51.5074 }, new double[] { 2.3522, -0.1278 }, 0.001);
+        int kilometers = haversine.estimate(0, 1);
+        assert kilometers >= 340 && kilometers <= 345 : kilometers;
+        assertEquals(0, haversine.estimate(1, 1));
+    }
+
+    // ALT landmarks
+    @Test
+    public void landmarkHeuristicKeepsAStarExact() throws IOException {
+        Graph graph = randomNonNegativeGraph(1500, 6000, 47);
+        Landmarks landmarks = Landmarks.selectFarthest(graph, 6, 3);
+        assertEquals(6, landmarks.landmarks.length);
+
+        Dijkstra dijkstra = new Dijkstra(graph);
+        Dijkstra aStar = new Dijkstra(graph);
+        Random random = new Random(53);
+        long dijkstraSettled = 0;
+        long aStarSettled = 0;
+        for (int query = 0; query < 50; query++) {
+            int start = random.nextInt(1500);
+            int target = random.nextInt(1500);
+            int expected = dijkstra.shortestDistance(start, target);
+            assertEquals(expected, aStar.aStar(start, target, landmarks));
+            dijkstraSettled += dijkstra.settledCount;
+            aStarSettled += aStar.settledCount;
+        }
+        assert aStarSettled < dijkstraSettled : aStarSettled + " >= " + dijkstraSettled;
+
+        Path file = Files.createTempFile("landmarks", ".alt");
+        try {
+            landmarks.save(file);
+            Landmarks loaded = Landmarks.load(file, graph);
+            assertArrayEquals(landmarks.landmarks, loaded.landmarks);
+            assertArrayEquals(landmarks.fromLandmark, loaded.fromLandmark);
+            assertArrayEquals(landmarks.toLandmark, loaded.toLandmark);
+            Landmarks recomputed = Landmarks.compute(graph, landmarks.landmarks, 2);
+            assertArrayEquals(landmarks.toLandmark, recomputed.toLandmark);
+            assertArrayEquals(landmarks.fromLandmark, recomputed.fromLandmark);
+
+            // Files whose size does not match the header are rejected before anything is read
+            byte[] bytes = Files.readAllBytes(file);
+            Files.write(file, Arrays.copyOf(bytes, bytes.length + 4));
+            assertThrows(IOException.class, () -> Landmarks.load(file, graph));
+            Files.write(file, Arrays.copyOf(bytes, bytes.length - 4));
+            assertThrows(IOException.class, () -> Landmarks.load(file, graph));
+            // A landmark count whose tables overflow int
+            bytes[8] = 0;
+            bytes[9] = 0;
+            bytes[10] = 0x20;
+            bytes[11] = 0;
+            Files.write(file, bytes);
+            assertThrows(IOException.class, () -> Landmarks.load(file, graph));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void contractionHierarchyMatchesDijkstra() throws IOException {
+        Graph graph = randomNonNegativeGraph(1200, 4800, 59);
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(graph, 1);
+        ContractionHierarchy parallel = ContractionHierarchy.build(graph, 4);
+        ContractionHierarchy.Query query = hierarchy.newQuery();
+        ContractionHierarchy.Query parallelQuery = parallel.newQuery();
+        Dijkstra dijkstra = new Dijkstra(graph);
+        Random random = new Random(61);
+        for (int q = 0; q < 200; q++) {
+            int start = random.nextInt(1200);
+            int target = random.nextInt(1200);
+            int expected = dijkstra.shortestDistance(start, target);
+            assertEquals(expected, query.shortestDistance(start, target));
+            assertEquals(expected, parallelQuery.shortestDistance(start, target));
+            ArrayList<Integer> path = query.getPath(start, target);
+            if (expected == dijkstra.INF) {
+                assertEquals(0, path.size());
+            } else {
+                assertEquals(start, (int) path.get(0));
+                assertEquals(target, (int) path.get(path.size() - 1));
+                assertEquals(expected, pathLength(graph, path));
+            }
+        }
+        assertEquals(0, query.shortestDistance(7, 7));
+        assertEquals(List.of(7), query.getPath(7, 7));
+
+        Path file = Files.createTempFile("hierarchy", ".ch");
+        try {
+            hierarchy.save(file);
+            ContractionHierarchy loaded = ContractionHierarchy.load(file);
+            assertArrayEquals(hierarchy.rank, loaded.rank);
+            assertArrayEquals(hierarchy.upTargets, loaded.upTargets);
+            assertArrayEquals(hierarchy.downMiddles, loaded.downMiddles);
+            ContractionHierarchy.Query loadedQuery = loaded.newQuery();
+            for (int q = 0; q < 20; q++) {
+                int start = random.nextInt(1200);
+                int target = random.nextInt(1200);
+                assertEquals(dijkstra.shortestDistance(start, target), loadedQuery.shortestDistance(start, target));
+            }
+
+            // Truncated, padded or absurd headers fail with IOException before any large allocation
+            byte[] bytes = Files.readAllBytes(file);
+            Files.write(file, Arrays.copyOf(bytes, bytes.length - 4));
+            assertThrows(IOException.class, () -> ContractionHierarchy.load(file));
+            Files.write(file, Arrays.copyOf(bytes, bytes.length + 4));
+            assertThrows(IOException.class, () -> ContractionHierarchy.load(file));
+            for (int field : new int[] { 4, 8, 12 }) {
+                byte[] corrupt = bytes.clone();
+                corrupt[field + 3] = (byte) 0x80;  // negative count
+                Files.write(file, corrupt);
+                assertThrows(IOException.class, () -> ContractionHierarchy.load(file));
+                corrupt[field + 3] = 0x7f;  // count far beyond the file
+                Files.write(file, corrupt);
+                assertThrows(IOException.class, () -> ContractionHierarchy.load(file));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void johnsonMatchesFloydWarshall() {
+        Graph graph = randomGraphWithoutNegativeCycles(150, 900, 13);
+        int[][] expected = floydWarshallMatrix(graph, FloydWarshall.Kernel.SCALAR, 1, false);
+        Johnson johnson = new Johnson(graph);
+        johnson.setParallelism(3);
+        int[][] rows = new int[graph.size()][];
+        QueryResult[] results = new QueryResult[graph.size()];
+        johnson.run((source, distances, predecessors) -> {
+            rows[source] = distances.clone();
+            results[source] = new QueryResult(source, distances.clone(), predecessors.clone());
+        });
+        for (int i = 0; i < graph.size(); i++) {
+            assertArrayEquals(expected[i], rows[i]);
+            for (int j = 0; j < graph.size(); j += 17) {
+                if (rows[i][j] != johnson.INF) {
+                    assertEquals(rows[i][j], pathLength(graph, results[i].getPath(j)));
+                }
+            }
+        }
+
+        // Many improvements of node 1 without a negative cycle used to make the SPFA potentials fail
+        Graph improved = new Graph.Builder(4).addEdge(2, 1, -14).addEdge(3, 3, 4).addEdge(3, 1, -24)
+                .addEdge(0, 1, -7).addEdge(0, 0, 3).addEdge(3, 1, -31).addEdge(3, 2, -10).addEdge(1, 0, 15).build();
+        int[][] improvedExpected = floydWarshallMatrix(improved, FloydWarshall.Kernel.SCALAR, 1, false);
+        new Johnson(improved).run((source, distances, predecessors) -> assertArrayEquals(improvedExpected[source], distances));
+
+        Graph.Builder builder = new Graph.Builder(3);
+        builder.addEdge(0, 1, 2).addEdge(1, 2, -3).addEdge(2, 1, 1);
+        Johnson withCycle = new Johnson(builder.build());
+        assertThrows(IllegalStateException.class, () -> withCycle.run((source, distances, predecessors) -> { }));
+    }
+
+    @Test
+    public void mappedFloydWarshallMatchesBlockedAndReopens() throws IOException {
+        Path file = Files.createTempFile("floyd", ".fwm");
+        try {
+            for (Graph graph : new Graph[] { randomGraphWithoutNegativeCycles(90, 500, 17), negativeCycleGraph(70, 19) }) {
+                FloydWarshall blocked = new FloydWarshall(graph);
+                blocked.setKernel(FloydWarshall.Kernel.BLOCKED);
+                blocked.setTileSize(16);
+                boolean cycle = false;
+                try {
+                    blocked.floydWarshall();
+                } catch (IllegalStateException e) {
+                    cycle = true;
+                }
+
+                try (MappedFloydWarshall mapped = MappedFloydWarshall.create(graph, file, 16)) {
+                    mapped.setParallelism(3);
+                    if (cycle) {
+                        assertThrows(IllegalStateException.class, mapped::floydWarshall);
+                    } else {
+                        mapped.floydWarshall();
+                    }
+                }
+                try (MappedFloydWarshall reopened = MappedFloydWarshall.open(file)) {
+                    assertEquals(cycle ? MappedFloydWarshall.STATE_NEGATIVE_CYCLE : MappedFloydWarshall.STATE_COMPLETE, reopened.state);
+                    for (int i = 0; i < graph.size(); i++) {
+                        for (int j = 0; j < graph.size(); j++) {
+                            assertEquals(blocked.distanceMatrix[i][j], reopened.distance(i, j));
+                            assertEquals(blocked.nextNode[i][j], reopened.next(i, j));
+                        }
+                        if (!cycle) {
+                            assertEquals(blocked.getPath(i, graph.size() - 1 - i), reopened.getPath(i, graph.size() - 1 - i));
+                        }
+                    }
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void mappedFloydWarshallMatchesScalarOnTiesAndCycles() throws IOException {
+        Path file = Files.createTempFile("floyd", ".fwm");
+        try {
+            Random random = new Random(29);
+            for (int round = 0; round < 40; round++) {
+                int n = 2 + random.nextInt(40);
+                boolean negative = round % 2 == 1;
+                Graph.Builder builder = new Graph.Builder(n);
+                for (int e = random.nextInt(4 * n); e >= 0; e--) {
+                    builder.addEdge(random.nextInt(n), random.nextInt(n), negative ? random.nextInt(8) - 2 : random.nextInt(3));
+                }
+                Graph graph = builder.build();
+                FloydWarshall scalar = floydWarshallRun(graph, FloydWarshall.Kernel.SCALAR, 1, 1);
+                FloydWarshall.Kernel kernel = round % 4 < 2 ? FloydWarshall.Kernel.BLOCKED : FloydWarshall.Kernel.VECTOR;
+                try (MappedFloydWarshall mapped = MappedFloydWarshall.create(graph, file, 1 + random.nextInt(6))) {
+                    mapped.setKernel(kernel);
+                    mapped.setParallelism(1 + round % 3);
+                    try {
+                        mapped.floydWarshall();
+                    } catch (IllegalStateException e) {
+                        assertEquals(MappedFloydWarshall.STATE_NEGATIVE_CYCLE, mapped.state);
+                    }
+                    for (int i = 0; i < n; i++) {
+                        for (int j = 0; j < n; j++) {
+                            assertEquals(scalar.distanceMatrix[i][j], mapped.distance(i, j));
+                            assertEquals(scalar.nextNode[i][j], mapped.next(i, j));
+                            assertEquals(scalar.getPath(i, j), mapped.getPath(i, j));
+                        }
+                    }
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void mappedFloydWarshallOpenRejectsWrongFileLength() throws IOException {
+        Path file = Files.createTempFile("floyd", ".fwm");
+        try {
+            try (MappedFloydWarshall mapped = MappedFloydWarshall.create(randomGraphWithoutNegativeCycles(20, 60, 31), file, 8)) {
+                mapped.floydWarshall();
+            }
+            byte[] bytes = Files.readAllBytes(file);
+            Files.write(file, Arrays.copyOf(bytes, bytes.length + 4));
+            assertThrows(IOException.class, () -> MappedFloydWarshall.open(file).close());
+            Files.write(file, Arrays.copyOf(bytes, bytes.length - 4));
+            assertThrows(IOException.class, () -> MappedFloydWarshall.open(file).close());
+            Files.write(file, bytes);
+            MappedFloydWarshall.open(file).close();
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    Graph negativeCycleGraph(int n, long seed) {
+        Random random = new Random(seed);
+        Graph.Builder builder = new Graph.Builder(n);
+        for (int e = 0; e < 4 * n; e++) {
+            builder.addEdge(random.nextInt(n), random.nextInt(n), random.nextInt(100) + 1);
+        }
+        builder.addEdge(3, 4, -50).addEdge(4, 3, 10);
+        return builder.build();
+    }
+
+    @Test
+    public void graphFileRoundTripsAndDetectsCorruption() throws IOException {
+        Graph graph = randomGraphWithoutNegativeCycles(300, 2000, 23);
+        Path text = Files.createTempFile("graph", ".txt");
+        Path binary = Files.createTempFile("graph", ".csrg");
+        try {
+            StringBuilder lines = new StringBuilder(graph.size() + " " + graph.edgeCount() + "\n");
+            for (int u = 0; u < graph.size(); u++) {
+                for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                    lines.append(u).append(' ').append(graph.targets[e]).append(' ').append(graph.weights[e]).append('\n');
+                }
+            }
+            Files.writeString(text, lines);
+            GraphFile.convertText(text, binary);
+
+            Graph loaded = GraphFile.read(binary);
+            assertEquals(graph.size(), loaded.size());
+            assertEquals(graph.hasNegativeWeights(), loaded.hasNegativeWeights());
+            assertArrayEquals(graph.offsets, loaded.offsets);
+            assertArrayEquals(graph.targets, loaded.targets);
+            assertArrayEquals(graph.weights, loaded.weights);
+
+            byte[] bytes = Files.readAllBytes(binary);
+            bytes[bytes.length - 3] ^= 1;
+            Files.write(binary, bytes);
+            assertThrows(IOException.class, () -> GraphFile.read(binary));
+        } finally {
+            Files.delete(text);
+            Files.delete(binary);
+        }
+    }
+
+    @Test
+    public void edgeListParserMatchesBuilder() throws IOException {
+        Graph graph = randomGraphWithoutNegativeCycles(500, 6000, 29);
+        Path file = Files.createTempFile("edges", ".txt");
+        try {
+            StringBuilder lines = new StringBuilder(graph.size() + " " + graph.edgeCount() + "\r\n");
+            for (int u = 0; u < graph.size(); u++) {
+                for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                    lines.append(u).append(e % 3 == 0 ? "\t" : "  ").append(graph.targets[e]).append(' ')
+                            .append(graph.weights[e]).append(e % 2 == 0 ? "\n" : "\r\n");
+                }
+            }
+            Files.writeString(file, lines);
+
+            EdgeListParser parser = new EdgeListParser();
+            parser.setBufferSize(64);  // forces numbers to straddle refills
+            parser.setParallelism(3);
+            for (Graph parsed : new Graph[] { parser.read(file), parser.readParallel(file) }) {
+                assertArrayEquals(graph.offsets, parsed.offsets);
+                assertArrayEquals(graph.targets, parsed.targets);
+                assertArrayEquals(graph.weights, parsed.weights);
+            }
+
+            Files.writeString(file, "3 2\n0 1 5\n1 x 2\n");
+            assertThrows(IOException.class, () -> new EdgeListParser().read(file));
+            Files.writeString(file, "3 2\n0 1 5\n");
+            assertThrows(IOException.class, () -> new EdgeListParser().readParallel(file));
+            Files.writeString(file, "2 1\n0 1 -2147483648\n");
+            assertEquals(Integer.MIN_VALUE, new EdgeListParser().read(file).weights[0]);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void graphGeneratorFamiliesAreDeterministic() {
+        for (GraphGenerator.Family family : GraphGenerator.Family.values()) {
+            Graph first = GraphGenerator.generate(family, 400, 3);
+            Graph second = GraphGenerator.generate(family, 400, 3);
+            assertEquals(400, first.size());
+            assertArrayEquals(first.targets, second.targets);
+            assertArrayEquals(first.weights, second.weights);
+            assertEquals(false, first.hasNegativeWeights());
+        }
+        // Grid: 4 * side * (side - 1) directed edges
+        assertEquals(4 * 20 * 19, GraphGenerator.grid(20, 10, 1).edgeCount());
+        Graph scaleFree = GraphGenerator.scaleFree(2000, 3, 10, 1);
+        int maxDegree = 0;
+        for (int v = 0; v < scaleFree.size(); v++) {
+            maxDegree = Math.max(maxDegree, scaleFree.degree(v));
+        }
+        assert maxDegree > 50 : "expected hubs, max degree " + maxDegree;
+    }
+
+    @Test
+    public void longSolversMatchIntSolversAndHandleLargeCosts() {
+        Graph graph = randomGraphWithoutNegativeCycles(80, 500, 31);
+        LongGraph wide = LongGraph.fromGraph(graph);
+        FloydWarshall fw = new FloydWarshall(graph);
+        fw.floydWarshall();
+        LongFloydWarshall longFw = new LongFloydWarshall(wide);
+        longFw.setParallelism(3);
+        longFw.floydWarshall();
+        LongBellmanFord longBf = new LongBellmanFord(wide);
+        for (int s = 0; s < graph.size(); s += 7) {
+            longBf.solve(s);
+            for (int v = 0; v < graph.size(); v++) {
+                long expected = fw.distanceMatrix[s][v] == fw.INF ? Distances.LONG_INF : fw.distanceMatrix[s][v];
+                assertEquals(expected, longFw.distanceMatrix[s][v]);
+                assertEquals(expected, longBf.distanceList[v]);
+            }
+        }
+
+        // A chain of 3 * 10^9 steps plus a cheaper detour; every sum is past the int range
+        LongGraph chain = new LongGraph.Builder(5)
+                .addEdge(0, 1, 3_000_000_000L).addEdge(1, 2, 3_000_000_000L).addEdge(2, 3, 3_000_000_000L)
+                .addEdge(0, 3, 8_999_999_999L).build();
+        LongDijkstra dijkstra = new LongDijkstra(chain);
+        dijkstra.solve(0);
+        assertEquals(8_999_999_999L, dijkstra.distanceList[3]);
+        assertEquals(List.of(0, 3), dijkstra.getPath(0, 3));
+        assertEquals(Distances.LONG_INF, dijkstra.distanceList[4]);
+        assertEquals(List.of(), dijkstra.getPath(0, 4));
+        LongFloydWarshall chainFw = new LongFloydWarshall(chain);
+        chainFw.floydWarshall();
+        assertEquals(6_000_000_000L, chainFw.distanceMatrix[0][2]);
+        assertEquals(List.of(0, 1, 2), chainFw.getPath(0, 2));
+
+        LongGraph cycle = LongGraph.fromGraph(negativeCycleGraph(40, 37));
+        LongBellmanFord cycleBf = new LongBellmanFord(cycle);
+        assertThrows(IllegalStateException.class, () -> cycleBf.solve(3));
+        assertEquals(-Distances.LONG_INF, cycleBf.distanceList[4]);
+        assertThrows(IllegalArgumentException.class, () -> new LongGraph.Builder(2).addEdge(0, 1, Distances.LONG_INF));
+
+        assertEquals(Distances.LONG_INF, Distances.saturatingAdd(Distances.LONG_INF, -5));
+        assertEquals(Distances.LONG_INF, Distances.saturatingAdd(Distances.LONG_INF - 1, Distances.LONG_INF - 1));
+        assertEquals(-Distances.LONG_INF, Distances.saturatingAdd(-Distances.LONG_INF + 1, -2));
+        assertEquals(-Distances.LONG_INF, Distances.saturatingAdd(-Distances.LONG_INF, 7));
+    }
+
+    @Test
+    public void longFloydWarshallMarksNegativeCyclesLikeFloydWarshall() {
+        Random random = new Random(71);
+        int cycles = 0;
+        for (int round = 0; round < 400; round++) {
+            int n = 2 + random.nextInt(12);
+            Graph.Builder builder = new Graph.Builder(n);
+            for (int e = random.nextInt(3 * n); e >= 0; e--) {
+                builder.addEdge(random.nextInt(n), random.nextInt(n), random.nextInt(11) - 3);
+            }
+            Graph graph = builder.build();
+            FloydWarshall fw = floydWarshallRun(graph, FloydWarshall.Kernel.SCALAR, 1, 1);
+            LongFloydWarshall longFw = new LongFloydWarshall(LongGraph.fromGraph(graph));
+            longFw.setParallelism(1 + round % 2);
+            try {
+                longFw.floydWarshall();
+            } catch (IllegalStateException e) {
+                cycles++;
+            }
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    int expected = fw.distanceMatrix[i][j];
+                    long widened = expected == fw.INF ? Distances.LONG_INF : expected == -fw.INF ? -Distances.LONG_INF : expected;
+                    assertEquals(widened, longFw.distanceMatrix[i][j]);
+                    assertEquals(fw.nextNode[i][j], longFw.nextNode[i][j]);
+                    assertEquals(fw.getPath(i, j), longFw.getPath(i, j));
+                }
+            }
+        }
+        assert cycles > 50 : "expected negative cycles, got " + cycles;
+    }
+
+    @Test
+    public void dynamicShortestPathsMatchRecomputation() {
+        Random random = new Random(41);
+        int n = 300;
+        DynamicGraph graph = new DynamicGraph(GraphGenerator.randomSparse(n, 4, 100, 41));
+        DynamicShortestPaths repaired = new DynamicShortestPaths(graph, 0);
+        for (int step = 0; step < 400; step++) {
+            int u = random.nextInt(n);
+            int v = random.nextInt(n);
+            switch (random.nextInt(3)) {
+                case 0: graph.setWeight(u, v, random.nextInt(100)); break;
+                case 1: graph.deleteEdge(u, v); break;
+                default:
+                    // Delete or raise an edge of the current tree so the subtree path is exercised
+                    int x = 1 + random.nextInt(n - 1);
+                    if (repaired.path[x] >= 0) {
+                        if (random.nextBoolean()) {
+                            graph.deleteEdge(repaired.path[x], x);
+                        } else {
+                            graph.setWeight(repaired.path[x], x, graph.weight(repaired.path[x], x) + 50);
+                        }
+                    }
+            }
+            Dijkstra fresh = new Dijkstra(graph.toGraph());
+            fresh.solve(0);
+            assertArrayEquals(fresh.distanceList, repaired.distanceList);
+            for (int t = 0; t < n; t += 37) {
+                List<Integer> path = repaired.getPath(t);
+                long cost = 0;
+                for (int i = 1; i < path.size(); i++) {
+                    cost += graph.weight(path.get(i - 1), path.get(i));
+                }
+                assertEquals(path.isEmpty() ? fresh.INF : cost, fresh.distanceList[t]);
+            }
+        }
+        long version = graph.version();
+        graph.setWeight(1, 2, 5);
+        assertEquals(version + 1, graph.version());
+        assertThrows(IllegalArgumentException.class, () -> graph.setWeight(1, 2, -1));
+    }
+
+    @Test
+    public void floydWarshallDecreaseEdgeMatchesRecomputation() {
+        Random random = new Random(43);
+        int n = 60;
+        Graph graph = randomGraphWithoutNegativeCycles(n, 240, 43);
+        FloydWarshall fw = new FloydWarshall(graph);
+        fw.floydWarshall();
+        ArrayList<ArrayList<int[]>> adjacency = new ArrayList<>();
+        for (int u = 0; u < n; u++) {
+            adjacency.add(new ArrayList<>());
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                adjacency.get(u).add(new int[] { graph.targets[e], graph.weights[e] });
+            }
+        }
+        for (int step = 0; step < 30; step++) {
+            int u = random.nextInt(n);
+            int v = random.nextInt(n);
+            int w = random.nextInt(2000) - 1000;
+            if (u == v || fw.distanceMatrix[v][u] != fw.INF && w + fw.distanceMatrix[v][u] < 0) continue;
+            fw.decreaseEdge(u, v, w);
+            adjacency.get(u).add(new int[] { v, w });
+            FloydWarshall fresh = new FloydWarshall(adjacency);
+            fresh.floydWarshall();
+            for (int i = 0; i < n; i++) {
+                assertArrayEquals(fresh.distanceMatrix[i], fw.distanceMatrix[i]);
+                for (int j = 0; j < n; j += 7) {
+                    // The repaired next pointers must spell out a path of the repaired length
+                    List<Integer> path = fw.getPath(i, j);
+                    long cost = 0;
+                    for (int p = 1; p < path.size(); p++) {
+                        long lightest = fw.INF;
+                        for (int[] edge : adjacency.get(path.get(p - 1))) {
+                            if (edge[0] == path.get(p)) lightest = Math.min(lightest, edge[1]);
+                        }
+                        cost += lightest;
+                    }
+                    assertEquals(path.isEmpty() ? fw.INF : cost, fw.distanceMatrix[i][j]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void resultCacheEvictsByBytesAndInvalidatesOnChange() {
+        Graph graph = GraphGenerator.randomSparse(200, 4, 100, 47);
+        long entryBytes = ResultCache.sizeOf(new QueryResult(0, new int[200], new int[200]));
+        ResultCache cache = new ResultCache(entryBytes * 4, 1);
+        try (ShortestPathService service = new ShortestPathService(graph, 2)) {
+            service.setCache(cache);
+            Dijkstra dijkstra = new Dijkstra(graph);
+            for (int round = 0; round < 2; round++) {
+                for (int source = 0; source < 4; source++) {
+                    dijkstra.solve(source);
+                    assertArrayEquals(dijkstra.distanceList, service.query(source).distances);
+                }
+            }
+            assertEquals(4, cache.missCount());
+            assertEquals(4, cache.hitCount());
+            service.query(4);  // evicts source 0, the least recently used
+            assertEquals(1, cache.evictionCount());
+            assertEquals(entryBytes * 4, cache.bytes());
+            assertEquals(null, cache.get(0, 0, ResultCache.Algorithm.DIJKSTRA));
+        }
+
+        DynamicGraph dynamic = new DynamicGraph(graph);
+        ResultCache versioned = new ResultCache(1 << 20);
+        versioned.watch(dynamic);
+        IntFunction<QueryResult> solve = source -> {
+            Dijkstra solver = new Dijkstra(dynamic.toGraph());
+            solver.solve(source);
+            return new QueryResult(source, solver.distanceList.clone(), solver.path.clone());
+        };
+        QueryResult before = versioned.computeIfAbsent(dynamic.version(), 0, ResultCache.Algorithm.DIJKSTRA, solve);
+        int target = dynamic.outTargets[0][0];
+        dynamic.setWeight(0, target, dynamic.weight(0, target) + 1000);
+        assertEquals(0, versioned.size());
+        assertEquals(1, versioned.invalidationCount());
+        QueryResult after = versioned.computeIfAbsent(dynamic.version(), 0, ResultCache.Algorithm.DIJKSTRA, solve);
+        assertEquals(false, before == after);
+        // A result computed against the old version is refused
+        versioned.put(dynamic.version() - 1, 1, ResultCache.Algorithm.DIJKSTRA, before);
+        assertEquals(1, versioned.size());
+    }
+
+    // A put that passed the version check just before an invalidation must not leave a stale
+    // entry behind once the invalidation has swept its segment
+    @Test
+    public void resultCacheNeverKeepsInvalidatedVersions() throws InterruptedException {
+        ResultCache cache = new ResultCache(1 << 20, 2);
+        QueryResult result = new QueryResult(0, new int[4], new int[4]);
+        AtomicLong version = new AtomicLong();
+        AtomicBoolean done = new AtomicBoolean();
+        Thread[] writers = new Thread[3];
+        for (int w = 0; w < writers.length; w++) {
+            int source = w;
+            writers[w] = new Thread(() -> {
+                while (!done.get()) {
+                    cache.put(version.get(), source, ResultCache.Algorithm.DIJKSTRA, result);
+                }
+            });
+            writers[w].start();
+        }
+        for (int i = 0; i < 20000; i++) {
+            cache.invalidateBefore(version.incrementAndGet());
+        }
+        done.set(true);
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        int current = 0;
+        for (int source = 0; source < writers.length; source++) {
+            if (cache.get(version.get(), source, ResultCache.Algorithm.DIJKSTRA) != null) current++;
+        }
+        assertEquals(current, cache.size());
+    }
+
+    @Test
+    public void metricsRegistryCountsSolverWork() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        Graph graph = GraphGenerator.randomSparse(500, 4, 100, 53);
+        Dijkstra indexed = new Dijkstra(graph);
+        Dijkstra lazy = new Dijkstra(graph, Dijkstra.QueueType.LAZY);
+        indexed.setMetrics(metrics);
+        lazy.setMetrics(metrics);
+        indexed.solve(0);
+        assertEquals(indexed.settledCount, indexed.heapPops);
+        lazy.solve(0);
+        assertEquals(lazy.settledCount + metrics.dijkstraStalePops.sum(), lazy.heapPops);
+        assertEquals(lazy.heapPushes, lazy.heapPops);  // the lazy queue drains completely
+        assertEquals(lazy.relaxations + 1, lazy.heapPushes);
+
+        BellmanFord classic = new BellmanFord(graph);
+        BellmanFord spfa = new BellmanFord(graph, BellmanFord.Mode.SPFA);
+        classic.setMetrics(metrics);
+        spfa.setMetrics(metrics);
+        classic.solve(0);
+        spfa.solve(0);
+        // Every reachable node other than the source improves at least once
+        int reachable = 0;
+        for (int distance : classic.distanceList) {
+            if (distance != classic.INF) reachable++;
+        }
+        assertEquals(true, classic.relaxations >= reachable - 1 && spfa.relaxations >= reachable - 1);
+        assertEquals(true, classic.passes > 1 && spfa.passes > 1);
+        FloydWarshall fw = new FloydWarshall(GraphGenerator.randomSparse(40, 4, 100, 53));
+        fw.setMetrics(metrics);
+        fw.floydWarshall();
+        assertEquals(40, fw.kIterations);
+        // Every kernel counts pivots the same way, negative-cycle marking included
+        Graph cycles = negativeCycleGraph(50, 3);
+        int scalarIterations = floydWarshallRun(cycles, FloydWarshall.Kernel.SCALAR, 16, 1).kIterations;
+        assertEquals(true, scalarIterations > 50);
+        for (FloydWarshall.Kernel kernel : FloydWarshall.Kernel.values()) {
+            assertEquals(40, floydWarshallRun(GraphGenerator.randomSparse(40, 4, 100, 53), kernel, 16, 2).kIterations);
+            assertEquals(scalarIterations, floydWarshallRun(cycles, kernel, 7, 2).kIterations);
+        }
+
+        Map<String, Long> snapshot = metrics.snapshot();
+        assertEquals(2L, (long) snapshot.get("dijkstra_queries"));
+        assertEquals((long) indexed.settledCount + lazy.settledCount, (long) snapshot.get("dijkstra_nodes_settled"));
+        assertEquals(2L, (long) snapshot.get("dijkstra_latency_ns_count"));
+        assertEquals((long) classic.passes + spfa.passes, (long) snapshot.get("bellman_ford_passes"));
+        assertEquals(40L, (long) snapshot.get("floyd_warshall_k_iterations"));
+        assertEquals(true, metrics.toText().contains("bellman_ford_queries 2\n"));
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value * 1000);
+        }
+        long p50 = histogram.percentile(0.5);
+        assertEquals(true, p50 >= 500_000 && p50 <= 500_000 * 1.125);
+        assertEquals(1_000_000, histogram.percentile(1));
+        for (int bucket = 1; bucket < 480; bucket++) {
+            assertEquals(bucket, LatencyHistogram.bucketOf(LatencyHistogram.upperBound(bucket)));
+            assertEquals(bucket, LatencyHistogram.bucketOf(LatencyHistogram.upperBound(bucket - 1) + 1));
+        }
+    }
+
+    @Test
+    public void searchWorkspaceMatchesSolversAndReusesArrays() {
+        Graph graph = GraphGenerator.randomSparse(400, 3, 100, 59);
+        Dijkstra dijkstra = new Dijkstra(graph);
+        BellmanFord spfa = new BellmanFord(graph, BellmanFord.Mode.SPFA);
+        SearchWorkspace workspace = new SearchWorkspace(graph.size());
+        int[] buffer = new int[graph.size()];
+        for (int round = 0; round < 2; round++) {
+            // The second round starts right before the epoch wraps, which clears the stamps once
+            if (round == 1) workspace.epoch = Integer.MAX_VALUE - 3;
+            for (int source = 0; source < 10; source++) {
+                dijkstra.solve(source);
+                DistanceView view = dijkstra.solve(source, workspace);
+                assertArrayEquals(dijkstra.distanceList, view.toArray());
+                assertEquals(dijkstra.settledCount, workspace.settledCount);
+                for (int t = 0; t < graph.size(); t += 41) {
+                    assertEquals(dijkstra.getPath(source, t), view.getPath(t));
+                    assertEquals(dijkstra.getPath(source, t).size(), view.pathInto(t, buffer));
+                }
+                assertArrayEquals(dijkstra.distanceList, spfa.solve(source, workspace).toArray());
+                assertEquals(dijkstra.shortestDistance(source, 7), dijkstra.shortestDistance(source, 7, workspace));
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> dijkstra.solve(0, new SearchWorkspace(3)));
+
+        BellmanFord cycle = new BellmanFord(negativeCycleGraph(50, 61), BellmanFord.Mode.SPFA);
+        SearchWorkspace cycleWorkspace = new SearchWorkspace(50);
+        assertThrows(IllegalStateException.class, () -> cycle.solve(3, cycleWorkspace));
+        assertEquals(-Distances.INF, cycleWorkspace.view().distance(4));
+
+        // Steady-state queries allocate nothing once the workspace and the JIT are warm
+        if (ManagementFactory.getThreadMXBean() instanceof ThreadMXBean) {
+            ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long thread = Thread.currentThread().getId();
+            for (int i = 0; i < 2000; i++) {
+                dijkstra.solve(i % 400, workspace);
+                spfa.solve(i % 400, workspace);
+            }
+            long before = threads.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < 200; i++) {
+                dijkstra.solve(i % 400, workspace);
+                spfa.solve(i % 400, workspace);
+            }
+            long allocated = threads.getThreadAllocatedBytes(thread) - before;
+            assertEquals(true, allocated < 4096);
+        }
+    }
+
+    // Nodes improve more than V - 1 times here, but there is no cycle at all
+    Graph frequentlyImprovedDag() {
+        return new Graph.Builder(3)
+                .addEdge(0, 1, -3).addEdge(0, 1, -2).addEdge(0, 1, 0)
+                .addEdge(0, 2, 2).addEdge(0, 2, -1).addEdge(0, 2, -3)
+                .addEdge(1, 2, -2).build();
+    }
+
+    @Test
+    public void spfaAcceptsDagWithFrequentImprovements() {
+        Graph graph = frequentlyImprovedDag();
+        BellmanFord classic = new BellmanFord(graph, BellmanFord.Mode.CLASSIC);
+        BellmanFord spfa = new BellmanFord(graph, BellmanFord.Mode.SPFA);
+        classic.solve(0);
+        spfa.solve(0);
+        assertArrayEquals(new int[] { 0, -3, -5 }, classic.distanceList);
+        assertArrayEquals(classic.distanceList, spfa.distanceList);
+
+        // Small weights give many improvements per node; cycle-free graphs must never be rejected
+        Random random = new Random(67);
+        for (int round = 0; round < 500; round++) {
+            int n = 2 + random.nextInt(6);
+            Graph.Builder builder = new Graph.Builder(n);
+            for (int e = 0; e < 3 * n; e++) {
+                int u = random.nextInt(n);
+                int v = random.nextInt(n);
+                if (u < v) builder.addEdge(u, v, random.nextInt(11) - 5);
+            }
+            Graph dag = builder.build();
+            BellmanFord expected = new BellmanFord(dag, BellmanFord.Mode.CLASSIC);
+            BellmanFord actual = new BellmanFord(dag, BellmanFord.Mode.SPFA);
+            expected.solve(0);
+            actual.solve(0);
+            assertArrayEquals(expected.distanceList, actual.distanceList);
+            SearchWorkspace workspace = new SearchWorkspace(n);
+            assertArrayEquals(expected.distanceList, actual.solve(0, workspace).toArray());
+        }
+    }
+
+    // SPFA notices a cycle at the node whose walk reaches V edges, which is often downstream of
+    // the cycle; every mode must still mark the cycle itself and everything it feeds
+    @Test
+    public void spfaMarksEveryNodeBehindNegativeCycles() {
+        // Node 2 reaches a walk of V edges first, but the cycle is the self-loop at 0
+        Graph upstream = new Graph.Builder(5).addEdge(0, 0, -3).addEdge(0, 2, 7).addEdge(3, 1, 6).build();
+        int INF = Distances.INF;
+        BellmanFord upstreamSpfa = new BellmanFord(upstream, BellmanFord.Mode.SPFA);
+        assertThrows(IllegalStateException.class, () -> upstreamSpfa.solve(0));
+        assertArrayEquals(new int[] { -INF, INF, -INF, INF, INF }, upstreamSpfa.distanceList);
+        SearchWorkspace upstreamWorkspace = new SearchWorkspace(5);
+        assertThrows(IllegalStateException.class, () -> upstreamSpfa.solve(0, upstreamWorkspace));
+        assertArrayEquals(new int[] { -INF, INF, -INF, INF, INF }, upstreamWorkspace.view().toArray());
+
+        Random random = new Random(73);
+        int cycles = 0;
+        for (int round = 0; round < 3000; round++) {
+            int n = 2 + random.nextInt(14);
+            Graph.Builder builder = new Graph.Builder(n);
+            for (int e = random.nextInt(3 * n); e >= 0; e--) {
+                builder.addEdge(random.nextInt(n), random.nextInt(n), random.nextInt(16) - 3);
+            }
+            Graph graph = builder.build();
+            BellmanFord classic = new BellmanFord(graph, BellmanFord.Mode.CLASSIC);
+            boolean cycle = false;
+            try {
+                classic.solve(0);
+            } catch (IllegalStateException e) {
+                cycle = true;
+                cycles++;
+            }
+            for (BellmanFord.Mode mode : new BellmanFord.Mode[] { BellmanFord.Mode.SPFA, BellmanFord.Mode.PARALLEL }) {
+                BellmanFord other = new BellmanFord(graph, mode);
+                other.setParallelism(2);
+                try {
+                    other.solve(0);
+                    assertEquals(false, cycle);
+                } catch (IllegalStateException e) {
+                    assertEquals(true, cycle);
+                }
+                assertArrayEquals(classic.distanceList, other.distanceList);
+            }
+            SearchWorkspace workspace = new SearchWorkspace(n);
+            try {
+                new BellmanFord(graph, BellmanFord.Mode.SPFA).solve(0, workspace);
+                assertEquals(false, cycle);
+            } catch (IllegalStateException e) {
+                assertEquals(true, cycle);
+            }
+            assertArrayEquals(classic.distanceList, workspace.view().toArray());
+        }
+        assert cycles > 300 : "expected negative cycles, got " + cycles;
+    }
+
+    @Test
+    public void workspaceSpfaAcceptsDagWithFrequentImprovements() {
+        BellmanFord spfa = new BellmanFord(frequentlyImprovedDag(), BellmanFord.Mode.SPFA);
+        SearchWorkspace workspace = new SearchWorkspace(3);
+        // Reused across queries, so counts left over from an earlier epoch must not leak in
+        for (int round = 0; round < 3; round++) {
+            assertArrayEquals(new int[] { 0, -3, -5 }, spfa.solve(0, workspace).toArray());
+            spfa.solve(1, workspace);
+        }
+    }
 }
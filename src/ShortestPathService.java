@@ -0,0 +1,80 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+// Thread-safe single-source queries over one immutable Graph. Each worker thread keeps its own
+// solver instance (and with it the distance, predecessor, visited and heap scratch arrays) and
+// reuses it for every query it runs, so only the per-source result arrays are allocated.
+// Graphs with negative weights are answered with SPFA Bellman-Ford, all others with Dijkstra.
+public class ShortestPathService implements AutoCloseable {
+    final Graph graph;
+    private final ForkJoinPool pool;
+    private final ThreadLocal<Dijkstra> dijkstra;
+    private final ThreadLocal<BellmanFord> bellmanFord;
+    private volatile ResultCache cache;  // null unless caching was requested
+
+    ShortestPathService(Graph graph) {
+        this(graph, Runtime.getRuntime().availableProcessors());
+    }
+
+    ShortestPathService(Graph graph, int parallelism) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.graph = graph;
+        this.pool = new ForkJoinPool(parallelism);
+        this.dijkstra = ThreadLocal.withInitial(() -> new Dijkstra(graph));
+        this.bellmanFord = ThreadLocal.withInitial(() -> new BellmanFord(graph, BellmanFord.Mode.SPFA));
+    }
+
+    // Repeated sources are answered from the cache. The graph never changes, so every entry
+    // is stored under version 0 and the cache should not be shared with other graphs.
+    void setCache(ResultCache cache) {
+        this.cache = cache;
+    }
+
+    // Runs on the calling thread
+    QueryResult query(int source) {
+        ResultCache current = cache;
+        if (current == null) {
+            return solve(source);
+        }
+        ResultCache.Algorithm algorithm = graph.hasNegativeWeights()
+                ? ResultCache.Algorithm.BELLMAN_FORD : ResultCache.Algorithm.DIJKSTRA;
+        return current.computeIfAbsent(0, source, algorithm, this::solve);
+    }
+
+    private QueryResult solve(int source) {
+        if (graph.hasNegativeWeights()) {
+            BellmanFord solver = bellmanFord.get();
+            solver.solve(source);
+            return new QueryResult(source, solver.distanceList.clone(), solver.path.clone());
+        }
+        Dijkstra solver = dijkstra.get();
+        solver.solve(source);
+        return new QueryResult(source, solver.distanceList.clone(), solver.path.clone());
+    }
+
+    // Answers every source in parallel; results are in the order of the sources array
+    List<QueryResult> queryAll(int[] sources) {
+        QueryResult[] results = new QueryResult[sources.length];
+        ParallelRange.forEach(pool, 0, sources.length, 1, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                results[i] = query(sources[i]);
+            }
+        });
+        List<QueryResult> list = new ArrayList<>(results.length);
+        for (QueryResult result : results) {
+            list.add(result);
+        }
+        return list;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,15 @@
+// Receives per-query counters from the solvers. Solvers count into locals while they run and
+// report once at the end of a query, and only when metrics are attached, so the hot loops pay
+// for a few register increments and nothing else.
+public interface SolverMetrics {
+    // stalePops are queue entries skipped because their node was already settled (LAZY only)
+    default void dijkstraQuery(long nanos, int settled, long edgesScanned, long relaxations,
+                               long heapPushes, long heapPops, long stalePops) {}
+
+    // passes over the edges (queue rounds for SPFA) and distance improvements
+    default void bellmanFordQuery(long nanos, int passes, long relaxations) {}
+
+    // kIterations counts pivots, the same in every kernel: all V main pivots plus one marking
+    // pivot per node whose diagonal ended up negative
+    default void floydWarshallRun(long nanos, int kIterations) {}
+}
@@ -0,0 +1,18 @@
+// Receives the step-by-step state of the solvers. Solvers only call into it when a
+// listener is attached, so untraced runs do no formatting or I/O at all.
+public interface TraceListener {
+    default void dijkstraStarted(int start) {}
+
+    default void dijkstraStep(int iteration, int node, int[] distances) {}
+
+    default void bellmanFordStarted(int start) {}
+
+    default void bellmanFordPass(int pass, int[] distances) {}
+
+    // k is -1 for the initial matrix
+    default void floydWarshallStep(int k, int[][] distanceMatrix) {}
+
+    default void floydWarshallNegativeCyclesMarked(int[][] distanceMatrix) {}
+
+    default void negativeCycleDetected() {}
+}